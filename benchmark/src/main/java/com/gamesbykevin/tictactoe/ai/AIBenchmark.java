@@ -0,0 +1,89 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.Positions;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the ai choosing and making a move.<br>
+ * The hard ai searches until the position is solved or the time budget runs out,
+ * so on larger boards this measures the cost of everything around the search.
+ * @author ABRAHAM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AIBenchmark
+{
+    /**
+     * The time (milliseconds) the search can spend on a move
+     */
+    public static final long TIME_BUDGET = 5;
+    
+    /**
+     * The columns, rows and match count of the board
+     */
+    @Param({"3x3x3", "4x4x3", "4x4x4", "5x5x4", "7x7x4", "7x7x5", "9x9x5", "11x11x5", "13x13x5", "15x15x5", "19x19x5"})
+    public String board;
+    
+    @Param({"Empty", "Mid", "NearFull"})
+    public Positions.Fill fill;
+    
+    @Param({"Easy", "Hard", "MonteCarlo"})
+    public AI.Difficulty difficulty;
+    
+    //the position being measured
+    private Board position;
+    
+    //the board the ai moves on, restored before every move
+    private Board current;
+    
+    //our artificial intelligence, searching on one thread
+    private AI ai;
+    
+    //the keys of the player to move and the opponent
+    private int key, opponentKey;
+    
+    @Setup
+    public void setup()
+    {
+        this.position = Positions.create(board, fill);
+        this.current = new Board(position);
+        this.ai = new AI(TIME_BUDGET, 1);
+        
+        //X moves first, so X is to move when an even number of keys are placed
+        this.key = (position.getOccupiedCount() % 2 == 0) ? Board.KEY_X : Board.KEY_O;
+        this.opponentKey = (key == Board.KEY_X) ? Board.KEY_O : Board.KEY_X;
+    }
+    
+    @TearDown
+    public void tearDown()
+    {
+        ai.shutdown();
+    }
+    
+    @Benchmark
+    public Board analyze()
+    {
+        current.copy(position);
+        ai.analyze(current, key, opponentKey, difficulty);
+        return current;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.gamesbykevin.tictactoe.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler, so allocations per operation are reported with the times.<br>
+ * Any jmh command line option can be provided, e.g. "BoardBenchmark -p board=3x3x3,15x15x5" to run some of the benchmarks.
+ * @author ABRAHAM
+ */
+public final class BenchmarkRunner
+{
+    private BenchmarkRunner()
+    {
+        //this class is not meant to be created
+    }
+    
+    /**
+     * Run the benchmarks
+     * @param args The jmh command line options
+     * @throws CommandLineOptionException If the options are not valid
+     * @throws RunnerException If a benchmark fails
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException
+    {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build()).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.gamesbykevin.tictactoe.board;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the board and the win check.<br>
+ * This is in the board package so the helper methods that aren't public can be measured.
+ * @author ABRAHAM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark
+{
+    /**
+     * The columns, rows and match count of the board
+     */
+    @Param({"3x3x3", "4x4x3", "4x4x4", "5x5x4", "7x7x4", "7x7x5", "9x9x5", "11x11x5", "13x13x5", "15x15x5", "19x19x5"})
+    public String board;
+    
+    @Param({"Empty", "Mid", "NearFull"})
+    public Positions.Fill fill;
+    
+    //the board being measured
+    private Board current;
+    
+    //copy of the position, restored before it is reset
+    private Board position;
+    
+    //the location of the last key placed, or the middle of an empty board
+    private int lastCol, lastRow;
+    
+    //an empty location we can assign a key to
+    private int emptyCol, emptyRow;
+    
+    //the center (x,y) coordinate of the empty location
+    private float emptyX, emptyY;
+    
+    @Setup
+    public void setup()
+    {
+        this.position = Positions.create(board, fill);
+        this.current = new Board(position);
+        
+        this.lastCol = (current.getLastCol() < 0) ? current.getCols() / 2 : current.getLastCol();
+        this.lastRow = (current.getLastRow() < 0) ? current.getRows() / 2 : current.getLastRow();
+        
+        final int empty = Positions.getEmpty(current);
+        this.emptyCol = empty % current.getCols();
+        this.emptyRow = empty / current.getCols();
+        this.emptyX = current.getCellCenterX(emptyCol);
+        this.emptyY = current.getCellCenterY(emptyRow);
+    }
+    
+    @Benchmark
+    public boolean hasMatch()
+    {
+        return BoardHelper.hasMatch(current, Board.KEY_X);
+    }
+    
+    @Benchmark
+    public boolean hasMatchLastMove()
+    {
+        return BoardHelper.hasMatch(current, lastCol, lastRow);
+    }
+    
+    @Benchmark
+    public boolean markMatchLastMove()
+    {
+        return BoardHelper.markMatch(current, lastCol, lastRow);
+    }
+    
+    @Benchmark
+    public Board markMatch()
+    {
+        BoardHelper.markMatch(current, Board.KEY_X);
+        return current;
+    }
+    
+    @Benchmark
+    public boolean isFull()
+    {
+        return BoardHelper.isFull(current);
+    }
+    
+    @Benchmark
+    public Board assignKey()
+    {
+        current.assignKey(emptyCol, emptyRow, Board.KEY_X);
+        
+        //undo the move so every call measures the same position
+        current.setKey(emptyCol, emptyRow, Board.KEY_EMPTY);
+        current.setGameover(false);
+        return current;
+    }
+    
+    @Benchmark
+    public boolean assignKeyCoordinate()
+    {
+        final boolean result = current.assignKey(emptyX, emptyY, Board.KEY_X);
+        
+        //undo the move so every call measures the same position
+        current.setKey(emptyCol, emptyRow, Board.KEY_EMPTY);
+        current.setGameover(false);
+        return result;
+    }
+    
+    @Benchmark
+    public Board copy()
+    {
+        current.copy(position);
+        return current;
+    }
+    
+    /**
+     * Reset the position, subtract the copy benchmark to get the cost of the reset
+     * @return The board
+     */
+    @Benchmark
+    public Board copyAndReset()
+    {
+        current.copy(position);
+        current.reset();
+        return current;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.gamesbykevin.tictactoe.board;
+
+import java.util.Random;
+
+/**
+ * Creates the positions the benchmarks are measured on.<br>
+ * The positions are played out with random legal moves from a fixed seed, so every run measures the same positions,
+ * and a move that would complete a match is never played, so every position could still be reached in a game.
+ * @author ABRAHAM
+ */
+public final class Positions
+{
+    /**
+     * The seed used to place the keys
+     */
+    public static final long SEED = 0x7AC7AC7AL;
+    
+    /**
+     * The number of times a position is played out again when it can't be finished without a match
+     */
+    public static final int MAX_ATTEMPTS = 100000;
+    
+    /**
+     * How much of the board is occupied
+     */
+    public enum Fill
+    {
+        /**
+         * No keys placed
+         */
+        Empty, 
+        
+        /**
+         * Half of the locations occupied
+         */
+        Mid, 
+        
+        /**
+         * Every location occupied but one
+         */
+        NearFull
+    }
+    
+    private Positions()
+    {
+        //this class is not meant to be created
+    }
+    
+    /**
+     * Get the number of keys placed for the fill
+     * @param fill How much of the board is occupied
+     * @param locations The number of locations on the board
+     * @return The number of keys to place
+     */
+    public static int getCount(final Fill fill, final int locations)
+    {
+        switch (fill)
+        {
+            case Mid:
+                return locations / 2;
+                
+            case NearFull:
+                return locations - 1;
+                
+            case Empty:
+            default:
+                return 0;
+        }
+    }
+    
+    /**
+     * Create a board from its description
+     * @param description The columns, rows and match count, e.g. "15x15x5"
+     * @param fill How much of the board is occupied
+     * @return The board
+     */
+    public static Board create(final String description, final Fill fill)
+    {
+        final String[] values = description.split("x");
+        return create(Integer.parseInt(values[0]), Integer.parseInt(values[1]), Integer.parseInt(values[2]), fill);
+    }
+    
+    /**
+     * Create a board with keys placed.<br>
+     * X and O take turns and no match is completed, so the position could come from a game that isn't over.
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     * @param fill How much of the board is occupied
+     * @return The board
+     */
+    public static Board create(final int cols, final int rows, final int matchCount, final Fill fill)
+    {
+        final Random random = new Random(SEED);
+        final int count = getCount(fill, cols * rows);
+        
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+        {
+            final Board board = new Board(cols, rows, matchCount);
+            
+            if (playout(board, count, random))
+                return board;
+        }
+        
+        throw new IllegalStateException("Unable to place " + count + " keys without a match on " + cols + "x" + rows + "x" + matchCount);
+    }
+    
+    /**
+     * Play random moves, X and O taking turns, without completing a match
+     * @param board The board we are playing on
+     * @param count The number of moves to play
+     * @param random Object used to pick the moves
+     * @return true if every move was played, false if the player to move could only complete a match
+     */
+    private static boolean playout(final Board board, final int count, final Random random)
+    {
+        //trying a move reorders the empty locations of the board, so they are copied first
+        final int[] empties = new int[board.getEmptyCount()];
+        
+        for (int i = 0; i < count; i++)
+        {
+            final int key = (i % 2 == 0) ? Board.KEY_X : Board.KEY_O;
+            final int empty = board.getEmptyCount();
+            final int start = random.nextInt(empty);
+            
+            for (int j = 0; j < empty; j++)
+            {
+                empties[j] = board.getEmpty(j);
+            }
+            
+            boolean played = false;
+            
+            //try each empty location, starting with a random one, until one doesn't complete a match
+            for (int j = 0; j < empty && !played; j++)
+            {
+                final int index = empties[(start + j) % empty];
+                final int col = index % board.getCols();
+                final int row = index / board.getCols();
+                
+                board.setKey(col, row, key);
+                
+                if (board.hasMatch(col, row))
+                {
+                    board.setKey(col, row, Board.KEY_EMPTY);
+                }
+                else
+                {
+                    played = true;
+                }
+            }
+            
+            if (!played)
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Get an empty location of the board
+     * @param board The board
+     * @return The index (row * cols + col) of the first empty location in a random order from the fixed seed, -1 if none
+     */
+    public static int getEmpty(final Board board)
+    {
+        final int[] order = shuffle(board.getCols() * board.getRows());
+        
+        for (int i = 0; i < order.length; i++)
+        {
+            if (board.getKey(order[i] % board.getCols(), order[i] / board.getCols()) == Board.KEY_EMPTY)
+                return order[i];
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Get every location in a random order from the fixed seed
+     * @param locations The number of locations on the board
+     * @return The index of every location in a random order
+     */
+    private static int[] shuffle(final int locations)
+    {
+        final Random random = new Random(SEED);
+        final int[] order = new int[locations];
+        
+        for (int i = 0; i < order.length; i++)
+        {
+            order[i] = i;
+        }
+        
+        for (int i = order.length - 1; i > 0; i--)
+        {
+            final int j = random.nextInt(i + 1);
+            final int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        
+        return order;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Cancelling a search must not leave helping threads running into the next search
+ * @author ABRAHAM
+ */
+public class ParallelSearchTest
+{
+    //long enough that the search is always cancelled before it runs out of time
+    private static final long TIME_BUDGET = 500L;
+    
+    @Test
+    public void cancelledSearchWaitsForEveryThread() throws Exception
+    {
+        final ParallelSearch search = new ParallelSearch(TIME_BUDGET, 4);
+        
+        try
+        {
+            for (int attempt = 0; attempt < 5; attempt++)
+            {
+                final Board large = new Board(15, 15, 5);
+                large.setKey(7, 7, Board.KEY_X);
+                
+                final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+                final AtomicLong nodes = new AtomicLong(-1);
+                
+                final Thread thread = new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            search.search(large, Board.KEY_O, Board.KEY_X);
+                            
+                            //the interrupt is kept for the caller
+                            assertTrue(Thread.interrupted());
+                            
+                            //no thread is still searching once the search returns
+                            final long before = search.getNodes();
+                            Thread.sleep(50);
+                            nodes.set(search.getNodes() - before);
+                            
+                            //the next search can be on a different board right away
+                            final Board small = new Board(3, 3, 3);
+                            final int move = search.search(small, Board.KEY_X, Board.KEY_O);
+                            assertTrue(move >= 0 && move < 9);
+                        }
+                        catch (Throwable e)
+                        {
+                            failure.set(e);
+                        }
+                    }
+                });
+                
+                thread.start();
+                Thread.sleep(20 + (attempt * 10));
+                thread.interrupt();
+                thread.join();
+                
+                if (failure.get() != null)
+                    throw new AssertionError(failure.get());
+                
+                assertEquals(0, nodes.get());
+            }
+        }
+        finally
+        {
+            search.shutdown();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.gamesbykevin.tictactoe.panel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * The end of a touch must reach the game thread even when the queue fills up
+ * @author ABRAHAM
+ */
+public class InputQueueTest
+{
+    //small, so the queue is full after a few touches
+    private static final int CAPACITY = 8;
+    
+    //the number of touches made while the game thread is stalled
+    private static final int TOUCHES = 100;
+    
+    //the number of moves in each touch
+    private static final int MOVES = 20;
+    
+    @Test
+    public void endOfTouchIsDeliveredWhileStalled() throws Exception
+    {
+        final InputQueue queue = new InputQueue(CAPACITY);
+        
+        //which touches had their start and end added
+        final boolean[] started = new boolean[TOUCHES];
+        final boolean[] ended = new boolean[TOUCHES];
+        
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        
+        //the ui thread keeps touching while nothing is taken from the queue
+        final Thread producer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    float sequence = 0;
+                    
+                    for (int touch = 0; touch < TOUCHES; touch++)
+                    {
+                        started[touch] = queue.offer(new InputEvent(InputEvent.ACTION_DOWN, sequence++, touch));
+                        
+                        for (int move = 0; move < MOVES; move++)
+                        {
+                            queue.offer(new InputEvent(InputEvent.ACTION_MOVE, sequence++, touch));
+                        }
+                        
+                        //alternate the ways a touch can end
+                        final int end = (touch % 2 == 0) ? InputEvent.ACTION_UP : InputEvent.ACTION_CANCEL;
+                        ended[touch] = queue.offer(new InputEvent(end, sequence++, touch));
+                    }
+                }
+                catch (Throwable e)
+                {
+                    failure.set(e);
+                }
+            }
+        });
+        
+        producer.start();
+        producer.join();
+        
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        
+        //the first touch fits, and the queue is full before the last touch starts
+        assertTrue(started[0]);
+        assertFalse(started[TOUCHES - 1]);
+        
+        for (int touch = 0; touch < TOUCHES; touch++)
+        {
+            if (started[touch])
+                assertTrue("The end of touch " + touch + " was dropped", ended[touch]);
+        }
+        
+        //the game thread catches up, every end that was added arrives in order
+        float previous = -1;
+        int count = 0;
+        
+        final boolean[] received = new boolean[TOUCHES];
+        
+        InputEvent event;
+        
+        while ((event = queue.poll()) != null)
+        {
+            assertTrue(event.getX() > previous);
+            previous = event.getX();
+            count++;
+            
+            if (event.isFinal())
+                received[(int)event.getY()] = true;
+        }
+        
+        assertTrue(count <= CAPACITY);
+        
+        for (int touch = 0; touch < TOUCHES; touch++)
+        {
+            assertEquals("Touch " + touch, ended[touch], received[touch]);
+        }
+    }
+    
+    @Test
+    public void movesOfOneTouchUseOneSpace()
+    {
+        final InputQueue queue = new InputQueue(CAPACITY);
+        
+        assertTrue(queue.offer(new InputEvent(InputEvent.ACTION_DOWN, 0, 0)));
+        
+        //more moves than the queue can hold, only the latest is kept
+        for (int move = 1; move <= CAPACITY * 4; move++)
+        {
+            assertTrue(queue.offer(new InputEvent(InputEvent.ACTION_MOVE, move, 0)));
+        }
+        
+        assertTrue(queue.offer(new InputEvent(InputEvent.ACTION_UP, CAPACITY * 4 + 1, 0)));
+        
+        assertEquals(InputEvent.ACTION_DOWN, queue.poll().getAction());
+        
+        final InputEvent move = queue.poll();
+        assertEquals(InputEvent.ACTION_MOVE, move.getAction());
+        assertEquals(CAPACITY * 4, move.getX(), 0f);
+        
+        assertEquals(InputEvent.ACTION_UP, queue.poll().getAction());
+        assertNull(queue.poll());
+    }
+    
+    @Test
+    public void lastSpaceIsKeptForTheEndOfATouch()
+    {
+        final InputQueue queue = new InputQueue(CAPACITY);
+        
+        //fill every space but the last with the starts of touches
+        for (int i = 0; i < CAPACITY - 1; i++)
+        {
+            assertTrue(queue.offer(new InputEvent(InputEvent.ACTION_DOWN, i, i)));
+        }
+        
+        //only the end of a touch can use the last space
+        assertFalse(queue.offer(new InputEvent(InputEvent.ACTION_DOWN, CAPACITY, 0)));
+        assertTrue(queue.offer(new InputEvent(InputEvent.ACTION_CANCEL, CAPACITY, 0)));
+        
+        //nothing fits in a full queue
+        assertFalse(queue.offer(new InputEvent(InputEvent.ACTION_UP, CAPACITY + 1, 0)));
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.gamesbykevin.tictactoe;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.MenuItem;
 import android.view.Window;
 import android.view.WindowManager;
@@ -10,6 +11,11 @@ import android.content.Intent;
 import android.net.Uri;
 
 import com.gamesbykevin.tictactoe.panel.GamePanel;
+import com.gamesbykevin.tictactoe.thread.FrameMetrics;
+import com.gamesbykevin.tictactoe.thread.MainThread;
+
+import java.io.File;
+import java.io.IOException;
 
 public class TicTacToe extends Activity
 {
@@ -31,6 +37,17 @@ public class TicTacToe extends Activity
      */
     public static final String APP_URL = "https://play.google.com/store/apps/details?id=com.gamesbykevin.tictactoe";
     
+    /**
+     * Start the activity with this extra set to true to record the frame metrics,
+     * e.g. adb shell am start -n com.gamesbykevin.tictactoe/.TicTacToe --ez metrics true
+     */
+    public static final String EXTRA_METRICS = "metrics";
+    
+    /**
+     * The file the frame metrics are written to when the activity is paused
+     */
+    public static final String METRICS_FILE = "frame_metrics.txt";
+    
     /**
      * This is called when the activity is first created
      * @param savedInstanceState 
@@ -41,6 +58,10 @@ public class TicTacToe extends Activity
         //call parent create
         super.onCreate(savedInstanceState);
         
+        //record the frame metrics if requested
+        if (getIntent() != null && getIntent().getBooleanExtra(EXTRA_METRICS, false))
+            MainThread.METRICS.setEnabled(true);
+        
         //turn the title off
         super.requestWindowFeature(Window.FEATURE_NO_TITLE);
 
@@ -105,6 +126,32 @@ public class TicTacToe extends Activity
     public void onPause()
     {
         super.onPause();
+        
+        //report the frame metrics when the game is left
+        if (MainThread.METRICS.isEnabled())
+            writeMetrics();
+    }
+    
+    /**
+     * Write the frame metrics to logcat and to the metrics file in the files directory
+     */
+    private void writeMetrics()
+    {
+        final String report = MainThread.METRICS.getReport();
+        
+        for (String line : report.split("\n"))
+        {
+            Log.i(FrameMetrics.TAG, line);
+        }
+        
+        try
+        {
+            MainThread.METRICS.write(new File(getFilesDir(), METRICS_FILE));
+        }
+        catch (IOException e)
+        {
+            Log.e(FrameMetrics.TAG, "Unable to write " + METRICS_FILE, e);
+        }
     }
     
     @Override
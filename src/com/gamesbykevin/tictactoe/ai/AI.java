@@ -5,82 +5,279 @@ import com.gamesbykevin.tictactoe.board.Board;
 import java.util.Random;
 
 /**
- * Our artificial intelligence
+ * Our artificial intelligence.<br>
+ * Moves are worked out on a scratch copy of the board,
+ * so the game board is only changed once the final move is chosen.
  * @author ABRAHAM
  */
 public class AI 
 {
     /**
-     * Our random object used to make random decisions
+     * The solved positions of the default board, null if not loaded
      */
-    public static final Random RANDOM = new Random();
+    private static OpeningBook BOOK = null;
     
-    public static void analyze(final Board board, final int key, final int opponentKey)
+    /**
+     * How strong the artificial intelligence plays
+     */
+    public enum Difficulty
     {
-        //get the size of the board
-        final int cols = board.getBoardKey()[0].length;
-        final int rows = board.getBoardKey().length;
+        /**
+         * Win if possible, block the opponent if needed, else a random move
+         */
+        Easy, 
         
-        //first start analyzing to see if we have a win
-        for (int col = 0; col < cols; col++)
+        /**
+         * Search the game tree for the best move
+         */
+        Hard, 
+        
+        /**
+         * Play random games from the position, the faster the device the stronger the move
+         */
+        MonteCarlo
+    }
+    
+    //our search, kept between moves so previously searched positions are remembered
+    private final ParallelSearch search;
+    
+    //looks for a forced win before searching
+    private final ThreatSearch threatSearch = new ThreatSearch();
+    
+    //monte carlo tree search, kept so the trees are only allocated once
+    private final MonteCarlo monteCarlo;
+    
+    //copy of the board we can make moves on, reused for every move
+    private Board scratch;
+    
+    //the candidates of the scratch board, copied since trying a move changes the order of the list
+    private int[] candidates;
+    
+    //used to make random decisions, each ai has its own so they don't share one between threads
+    private final Random random = new Random();
+    
+    /**
+     * Create our artificial intelligence with the default search time
+     */
+    public AI()
+    {
+        this(Negamax.DEFAULT_TIME_BUDGET);
+    }
+    
+    /**
+     * Create our artificial intelligence
+     * @param timeBudget The time (milliseconds) the search can spend on a move
+     */
+    public AI(final long timeBudget)
+    {
+        this(timeBudget, ParallelSearch.DEFAULT_THREADS);
+    }
+    
+    /**
+     * Create our artificial intelligence
+     * @param timeBudget The time (milliseconds) the search can spend on a move
+     * @param threads The number of threads used to search
+     */
+    public AI(final long timeBudget, final int threads)
+    {
+        this.search = new ParallelSearch(timeBudget, threads);
+        this.monteCarlo = new MonteCarlo(timeBudget, MonteCarlo.UNLIMITED, threads);
+    }
+    
+    /**
+     * Get the monte carlo tree search
+     * @return The search used by the monte carlo difficulty, it reports the playouts per second
+     */
+    public MonteCarlo getMonteCarlo()
+    {
+        return this.monteCarlo;
+    }
+    
+    /**
+     * Seed the random decisions, so the same moves are made every time for the same position.<br>
+     * The monte carlo tree search is seeded as well.
+     * @param seed The seed of the random decisions
+     */
+    public void setSeed(final long seed)
+    {
+        random.setSeed(seed);
+        monteCarlo.setSeed(seed);
+    }
+    
+    /**
+     * Stop the threads used to search, this can't be used afterwards
+     */
+    public void shutdown()
+    {
+        search.shutdown();
+        monteCarlo.shutdown();
+    }
+    
+    /**
+     * Assign the opening book
+     * @param book The solved positions of the default board
+     */
+    public static void setOpeningBook(final OpeningBook book)
+    {
+        BOOK = book;
+    }
+    
+    /**
+     * Has the opening book been loaded?
+     * @return true = yes, false = no
+     */
+    public static boolean hasOpeningBook()
+    {
+        return (BOOK != null);
+    }
+    
+    /**
+     * Analyze the board and perform the move
+     * @param board The board we are playing on
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @param difficulty How strong the move should be
+     */
+    public void analyze(final Board board, final int key, final int opponentKey, final Difficulty difficulty)
+    {
+        final int move = getMove(board, key, opponentKey, difficulty);
+        
+        //make our move there
+        if (move >= 0)
+            board.assignKey(move % board.getCols(), move / board.getCols(), key);
+    }
+    
+    /**
+     * Choose a move without changing the board
+     * @param board The board we are playing on
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @param difficulty How strong the move should be
+     * @return The index (row * cols + col) of the chosen location, -1 if the board is full
+     */
+    public int getMove(final Board board, final int key, final int opponentKey, final Difficulty difficulty)
+    {
+        //we can't move if there are no empty locations
+        if (board.getEmptyCount() == 0)
+            return -1;
+        
+        switch (difficulty)
         {
-            for (int row = 0; row < rows; row++)
-            {
-                //only check empty places
-                if (board.getKey(col, row) != Board.KEY_EMPTY)
-                    continue;
+            case Hard:
+                //look up or search for the best move
+                return getBestMove(board, key, opponentKey);
                 
-                //assign our key
-                board.assignKey(col, row, key);
+            case MonteCarlo:
+                return monteCarlo.search(board, key, opponentKey);
                 
-                //if we made a match we are done
-                if (board.hasMatch(key))
-                    return;
-                
-                //since no luck, make this empty again
-                board.assignKey(col, row, Board.KEY_EMPTY);
-            }
+            case Easy:
+            default:
+                return getEasyMove(board, key, opponentKey);
+        }
+    }
+    
+    /**
+     * Get the best move, from the opening book if it has the position,
+     * else a forced win if the threat search finds one, else by searching
+     * @param board The board we are playing on
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The index (row * cols + col) of the best location
+     */
+    private int getBestMove(final Board board, final int key, final int opponentKey)
+    {
+        if (BOOK != null)
+        {
+            final int move = BOOK.getMove(board, key);
+            
+            if (move != OpeningBook.NONE)
+                return move;
         }
         
-        //second check if the opponent has a chance to match
-        for (int col = 0; col < cols; col++)
+        //a forced win by continuous threats is often too deep for the search to see
+        final int win = threatSearch.findWin(board, key, opponentKey);
+        
+        if (win != ThreatSearch.NONE)
+            return win;
+        
+        return search.search(board, key, opponentKey);
+    }
+    
+    /**
+     * Win if possible, else block the opponent, else a random move
+     * @param board The board we are playing on
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The index (row * cols + col) of the chosen location
+     */
+    private int getEasyMove(final Board board, final int key, final int opponentKey)
+    {
+        //work on our copy of the board, only allocating if the dimensions changed
+        if (scratch == null)
         {
-            for (int row = 0; row < rows; row++)
-            {
-                //only check empty places
-                if (board.getKey(col, row) != Board.KEY_EMPTY)
-                    continue;
-                
-                //assign the opponent key
-                board.assignKey(col, row, opponentKey);
-                
-                /**
-                 * If the opponent can match here, we have to block it
-                 */
-                if (board.hasMatch(opponentKey))
-                {
-                    //make our move here
-                    board.assignKey(col, row, key);
-                    return;
-                }
-                
-                //since no luck, make this empty again
-                board.assignKey(col, row, Board.KEY_EMPTY);
-            }
+            this.scratch = new Board(board);
+        }
+        else
+        {
+            this.scratch.copy(board);
         }
         
-        //finally if no success, make a random move
-        while (true)
+        //get the size of the board
+        final int cols = scratch.getCols();
+        final int rows = scratch.getRows();
+        
+        //a match can only be made next to an occupied location, so only the candidates are checked
+        if (candidates == null || candidates.length != cols * rows)
+            this.candidates = new int[cols * rows];
+        
+        final int count = scratch.getCandidateCount();
+        
+        for (int i = 0; i < count; i++)
+        {
+            this.candidates[i] = scratch.getCandidate(i);
+        }
+        
+        //first start analyzing to see if we have a win
+        for (int i = 0; i < count; i++)
         {
-            final int col = RANDOM.nextInt(cols);
-            final int row = RANDOM.nextInt(rows);
+            final int index = candidates[i];
+            final int col = index % cols;
+            final int row = index / cols;
             
-            //if this is an empty space we can move here
-            if (board.getKey(col, row) == Board.KEY_EMPTY)
-            {
-                board.assignKey(col, row, key);
-                break;
-            }
+            //assign our key
+            scratch.setKey(col, row, key);
+            
+            //if we made a match we are done
+            final boolean match = scratch.hasMatch(col, row);
+            
+            //make this empty again
+            scratch.setKey(col, row, Board.KEY_EMPTY);
+            
+            if (match)
+                return index;
         }
+        
+        //second check if the opponent has a chance to match
+        for (int i = 0; i < count; i++)
+        {
+            final int index = candidates[i];
+            final int col = index % cols;
+            final int row = index / cols;
+            
+            //assign the opponent key
+            scratch.setKey(col, row, opponentKey);
+            
+            //if the opponent can match here, we have to block it
+            final boolean match = scratch.hasMatch(col, row);
+            
+            //make this empty again
+            scratch.setKey(col, row, Board.KEY_EMPTY);
+            
+            if (match)
+                return index;
+        }
+        
+        //finally if no success, make a random move
+        return scratch.getEmpty(random.nextInt(scratch.getEmptyCount()));
     }
 }
\ No newline at end of file
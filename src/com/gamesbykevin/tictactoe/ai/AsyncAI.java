@@ -0,0 +1,129 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs our artificial intelligence on its own worker thread.<br>
+ * The board is copied when a move is requested, so the game can keep updating and rendering
+ * while the move is worked out, and poll the returned future until it is done.
+ * @author ABRAHAM
+ */
+public final class AsyncAI
+{
+    /**
+     * The time (milliseconds) the search can spend on a move.<br>
+     * Since the search is not on the main thread, it can take longer than a single frame.
+     */
+    public static final long TIME_BUDGET = 250;
+    
+    //the single thread that works out the moves
+    private final ExecutorService executor;
+    
+    //our artificial intelligence, only used by the worker thread
+    private final AI ai;
+    
+    //notified on the worker thread once a move is worked out, null if none
+    private volatile Runnable listener;
+    
+    /**
+     * Create the service and its worker thread
+     */
+    public AsyncAI()
+    {
+        this.ai = new AI(TIME_BUDGET);
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "AI");
+                
+                //don't keep the application alive, and let the main thread render first
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+    }
+    
+    /**
+     * Assign what is notified once a requested move is done.<br>
+     * It is run on the worker thread, after the future of the move is done.
+     * @param listener The listener, null to not be notified
+     */
+    public void setListener(final Runnable listener)
+    {
+        this.listener = listener;
+    }
+    
+    /**
+     * Request a move.<br>
+     * The board is copied right away, so it can be changed while the move is worked out.
+     * @param board The board we are playing on
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @param difficulty How strong the move should be
+     * @return Future containing the index (row * cols + col) of the chosen location, -1 if the board is full
+     */
+    public Future<Integer> requestMove(final Board board, final int key, final int opponentKey, final AI.Difficulty difficulty)
+    {
+        //take a snapshot of the board
+        final Board snapshot = new Board(board);
+        
+        final FutureTask<Integer> task = new FutureTask<Integer>(new Callable<Integer>()
+        {
+            @Override
+            public Integer call() throws Exception
+            {
+                return ai.getMove(snapshot, key, opponentKey, difficulty);
+            }
+        })
+        {
+            @Override
+            protected void done()
+            {
+                //the result is available once we get here
+                final Runnable listener = AsyncAI.this.listener;
+                
+                if (listener != null)
+                    listener.run();
+            }
+        };
+        
+        executor.execute(task);
+        return task;
+    }
+    
+    /**
+     * Seed the random decisions of the moves requested afterwards.<br>
+     * The seed is assigned on the worker thread, after any move already requested.
+     * @param seed The seed of the random decisions
+     */
+    public void setSeed(final long seed)
+    {
+        executor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                ai.setSeed(seed);
+            }
+        });
+    }
+    
+    /**
+     * Stop the worker thread, any move being worked out is abandoned
+     */
+    public void shutdown()
+    {
+        executor.shutdownNow();
+        ai.shutdown();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,602 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.BoardHelper;
+import com.gamesbykevin.tictactoe.board.BoardStorage;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monte Carlo tree search, choosing which moves to explore with upper confidence bounds (UCT).<br>
+ * Each thread grows its own tree from the same position (root parallelization),
+ * and the visits and scores of the moves at the start of the search are added up in lock-free counters.
+ * Playouts are random games played on a copy of the board storage, so no hashes or counts are kept up to date,
+ * and every tree is allocated up front, so nothing is allocated while searching.<br>
+ * The more playouts a device can run the stronger the moves, instead of being limited by a search depth.
+ * @author ABRAHAM
+ */
+public final class MonteCarlo
+{
+    /**
+     * There is no limit on the number of playouts, only the time budget
+     */
+    public static final long UNLIMITED = 0;
+    
+    /**
+     * The default number of nodes in the tree of each thread
+     */
+    public static final int DEFAULT_NODE_CAPACITY = 1 << 15;
+    
+    /**
+     * How much unexplored moves are favored over moves with a good score
+     */
+    public static final double EXPLORATION = Math.sqrt(2);
+    
+    //the score of a playout in half points, so a tie doesn't need a fraction
+    private static final int SCORE_WIN = 2;
+    private static final int SCORE_TIE = 1;
+    
+    //the result of a game that is not over
+    private static final int ONGOING = -1;
+    
+    //added to the seed for each thread, an odd constant so the seeds are spread apart
+    private static final long SEED_SPACING = 0x9E3779B97F4A7C15L;
+    
+    //the time (milliseconds) we can spend searching
+    private final long timeBudget;
+    
+    //the number of playouts we can run, UNLIMITED if only the time budget applies
+    private final long playoutBudget;
+    
+    //the search for each thread, the first is used by the thread calling search
+    private final Worker[] workers;
+    
+    //the threads helping with the search, null if there is only one thread
+    private final ExecutorService executor;
+    
+    //the results of the workers on the helping threads, reused each search
+    private final Future<?>[] futures;
+    
+    //the visits and score of each move at the start of the search, added up by every thread
+    private AtomicLongArray visits, scores;
+    
+    //the number of playouts started during the search
+    private final AtomicLong playouts = new AtomicLong();
+    
+    //the time (nanoseconds) the search has to be finished
+    private volatile long deadline;
+    
+    //the time (nanoseconds) the last search took
+    private long elapsed;
+    
+    /**
+     * Create a search with one thread for each available core and no limit on the number of playouts
+     * @param timeBudget The time (milliseconds) we can spend searching for a move
+     */
+    public MonteCarlo(final long timeBudget)
+    {
+        this(timeBudget, UNLIMITED, ParallelSearch.DEFAULT_THREADS);
+    }
+    
+    /**
+     * Create a search
+     * @param timeBudget The time (milliseconds) we can spend searching for a move
+     * @param playoutBudget The number of playouts we can run for a move, UNLIMITED if only the time budget applies
+     * @param threads The number of threads searching, including the thread calling search
+     */
+    public MonteCarlo(final long timeBudget, final long playoutBudget, final int threads)
+    {
+        if (threads < 1)
+            throw new IllegalArgumentException("At least 1 thread is required: " + threads);
+        
+        this.timeBudget = timeBudget;
+        this.playoutBudget = playoutBudget;
+        this.workers = new Worker[threads];
+        this.futures = new Future<?>[threads];
+        
+        for (int i = 0; i < threads; i++)
+        {
+            this.workers[i] = new Worker(DEFAULT_NODE_CAPACITY);
+        }
+        
+        if (threads > 1)
+        {
+            this.executor = Executors.newFixedThreadPool(threads - 1, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, "MonteCarlo");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        else
+        {
+            this.executor = null;
+        }
+    }
+    
+    /**
+     * Get the number of threads searching
+     * @return The number of threads, including the thread calling search
+     */
+    public int getThreads()
+    {
+        return this.workers.length;
+    }
+    
+    /**
+     * Get the number of playouts run by every thread during the last search
+     * @return The number of playouts
+     */
+    public long getPlayouts()
+    {
+        return this.playouts.get();
+    }
+    
+    /**
+     * Get the number of playouts per second during the last search
+     * @return The playouts per second, 0 if nothing has been searched
+     */
+    public double getPlayoutsPerSecond()
+    {
+        return (elapsed == 0) ? 0 : getPlayouts() / (elapsed / 1000000000.0);
+    }
+    
+    /**
+     * Seed the random moves of the playouts.<br>
+     * Each thread gets its own seed derived from this one, so the threads don't play the same playouts.
+     * The result is only repeatable with a playout budget and a single thread, since a time budget depends on the speed of the device.
+     * @param seed The seed of the random moves
+     */
+    public void setSeed(final long seed)
+    {
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i].random.setSeed(seed + (i * SEED_SPACING));
+        }
+    }
+    
+    /**
+     * Stop the helping threads, the search can't be used afterwards
+     */
+    public void shutdown()
+    {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+    
+    /**
+     * Search for the best move
+     * @param source The board we are playing on, it will not be modified
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The index (row * cols + col) of the most visited location, -1 if the board is full
+     * @throws RuntimeException If a helping thread failed, once every thread has finished
+     */
+    public int search(final Board source, final int key, final int opponentKey)
+    {
+        //we can't move if there are no empty locations
+        if (source.getEmptyCount() == 0)
+            return -1;
+        
+        final int size = source.getCols() * source.getRows();
+        
+        //we only need to allocate these again if the dimensions changed
+        if (visits == null || visits.length() != size)
+        {
+            this.visits = new AtomicLongArray(size);
+            this.scores = new AtomicLongArray(size);
+        }
+        else
+        {
+            for (int i = 0; i < size; i++)
+            {
+                this.visits.set(i, 0);
+                this.scores.set(i, 0);
+            }
+        }
+        
+        final long start = System.nanoTime();
+        
+        this.playouts.set(0);
+        this.deadline = start + (timeBudget * 1000000L);
+        
+        //every thread searches its own copy of the board
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i].prepare(source, key, opponentKey);
+        }
+        
+        //start the helping threads
+        for (int i = 1; i < workers.length; i++)
+        {
+            this.futures[i] = executor.submit(workers[i]);
+        }
+        
+        //the calling thread helps as well
+        workers[0].call();
+        
+        //was the calling thread interrupted while waiting
+        boolean interrupted = false;
+        
+        //the first error thrown by a helping thread
+        Throwable failure = null;
+        
+        //wait for the helping threads to finish, even if interrupted, since they use the shared visits and scores
+        for (int i = 1; i < futures.length; i++)
+        {
+            while (true)
+            {
+                try
+                {
+                    futures[i].get();
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    //no more playouts can be claimed, then keep waiting
+                    interrupted = true;
+                    this.deadline = Long.MIN_VALUE;
+                }
+                catch (ExecutionException e)
+                {
+                    //the other workers are stopped and waited for before the error is thrown
+                    if (failure == null)
+                        failure = e.getCause();
+                    
+                    this.deadline = Long.MIN_VALUE;
+                    break;
+                }
+            }
+            
+            this.futures[i] = null;
+        }
+        
+        //only restore the interrupt once no thread is using the search
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        
+        if (failure != null)
+            throw ParallelSearch.rethrow(failure);
+        
+        this.elapsed = System.nanoTime() - start;
+        
+        //the most visited move is the one we are most sure of, the score breaks ties
+        int bestMove = -1;
+        
+        for (int move = 0; move < size; move++)
+        {
+            if (source.getKey(move % source.getCols(), move / source.getCols()) != Board.KEY_EMPTY)
+                continue;
+            
+            if (bestMove < 0 || visits.get(move) > visits.get(bestMove) || (visits.get(move) == visits.get(bestMove) && scores.get(move) > scores.get(bestMove)))
+                bestMove = move;
+        }
+        
+        return bestMove;
+    }
+    
+    /**
+     * Can another playout start?
+     * @return true if there is time and playouts left, false otherwise
+     */
+    private boolean claimPlayout()
+    {
+        if (System.nanoTime() >= deadline)
+            return false;
+        
+        if (playoutBudget == UNLIMITED)
+        {
+            playouts.incrementAndGet();
+            return true;
+        }
+        
+        //take a playout from the budget, give it back if there were none left
+        if (playouts.getAndIncrement() >= playoutBudget)
+        {
+            playouts.decrementAndGet();
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Grows a tree and runs playouts until the budget runs out
+     */
+    private final class Worker implements Callable<Void>
+    {
+        //the nodes of the tree, node 0 is the position at the start of the search
+        private int[] nodeMove, nodeFirstChild, nodeChildCount, nodeVisits, nodeScores;
+        
+        //the number of nodes the tree can hold
+        private final int capacity;
+        
+        //the number of nodes in use
+        private int nodeCount;
+        
+        //our copy of the board
+        private BoardStorage storage;
+        
+        //the number of columns on the board
+        private int cols;
+        
+        //the empty locations at the start of the search
+        private int[] empties;
+        private int emptyCount;
+        
+        //the locations a playout can still choose from
+        private int[] choices;
+        private int choiceCount;
+        
+        //the nodes visited and the moves made during an iteration, so they can be scored and undone
+        private int[] path, placed;
+        
+        //the keys of the player to move at the start of the search and the opponent
+        private int key, opponentKey;
+        
+        //used to choose random moves
+        private final Random random = new Random();
+        
+        private Worker(final int capacity)
+        {
+            this.capacity = capacity;
+        }
+        
+        /**
+         * Prepare a new search
+         * @param source The board we will search a copy of
+         * @param key The key of the player to move
+         * @param opponentKey The key of the opponent
+         */
+        private void prepare(final Board source, final int key, final int opponentKey)
+        {
+            final BoardStorage sourceStorage = source.getStorage();
+            
+            //the tree is only allocated once it is used
+            if (nodeMove == null)
+            {
+                this.nodeMove = new int[capacity];
+                this.nodeFirstChild = new int[capacity];
+                this.nodeChildCount = new int[capacity];
+                this.nodeVisits = new int[capacity];
+                this.nodeScores = new int[capacity];
+            }
+            
+            //we only need to allocate these again if the board changed
+            if (storage == null || storage.getCols() != sourceStorage.getCols() || storage.getRows() != sourceStorage.getRows() || storage.getMatchCount() != sourceStorage.getMatchCount())
+            {
+                final int size = source.getCols() * source.getRows();
+                
+                this.storage = sourceStorage.copy();
+                this.cols = source.getCols();
+                this.empties = new int[size];
+                this.choices = new int[size];
+                this.path = new int[size + 1];
+                this.placed = new int[size];
+            }
+            else
+            {
+                this.storage.copy(sourceStorage);
+            }
+            
+            this.key = key;
+            this.opponentKey = opponentKey;
+            
+            //copy the empty locations
+            this.emptyCount = source.getEmptyCount();
+            
+            for (int i = 0; i < emptyCount; i++)
+            {
+                this.empties[i] = source.getEmpty(i);
+            }
+            
+            //start a new tree
+            this.nodeCount = 1;
+            clearNode(0, -1);
+        }
+        
+        /**
+         * Run playouts until the budget runs out
+         * @return null
+         */
+        @Override
+        public Void call()
+        {
+            while (claimPlayout())
+            {
+                iterate();
+            }
+            
+            return null;
+        }
+        
+        /**
+         * Reset the node
+         * @param node The index of the node
+         * @param move The move leading to the node
+         */
+        private void clearNode(final int node, final int move)
+        {
+            this.nodeMove[node] = move;
+            this.nodeFirstChild[node] = -1;
+            this.nodeChildCount[node] = 0;
+            this.nodeVisits[node] = 0;
+            this.nodeScores[node] = 0;
+        }
+        
+        /**
+         * Choose a path down the tree, expand it, run a playout from the end and score every node on the path
+         */
+        private void iterate()
+        {
+            int node = 0;
+            int depth = 0;
+            int moves = 0;
+            int remaining = emptyCount;
+            int turn = key;
+            int result = ONGOING;
+            
+            this.path[0] = node;
+            
+            //follow the tree until we reach a node without children
+            while (result == ONGOING)
+            {
+                if (nodeChildCount[node] == 0)
+                {
+                    //a node is expanded the second time it is reached, if there is room
+                    if ((node != 0 && nodeVisits[node] == 0) || nodeCount + remaining > capacity)
+                        break;
+                    
+                    expand(node);
+                }
+                
+                node = select(node);
+                
+                final int move = nodeMove[node];
+                storage.setKey(move % cols, move / cols, turn);
+                
+                this.placed[moves++] = move;
+                this.path[++depth] = node;
+                remaining--;
+                
+                if (BoardHelper.hasMatch(storage, move % cols, move / cols))
+                {
+                    result = turn;
+                }
+                else if (remaining == 0)
+                {
+                    result = Board.KEY_EMPTY;
+                }
+                
+                turn = (turn == key) ? opponentKey : key;
+            }
+            
+            //the playout can choose from every location still empty
+            System.arraycopy(empties, 0, choices, 0, emptyCount);
+            this.choiceCount = emptyCount;
+            
+            //play random moves until the game is over
+            while (result == ONGOING)
+            {
+                final int move = choose();
+                storage.setKey(move % cols, move / cols, turn);
+                
+                this.placed[moves++] = move;
+                remaining--;
+                
+                if (BoardHelper.hasMatch(storage, move % cols, move / cols))
+                {
+                    result = turn;
+                }
+                else if (remaining == 0)
+                {
+                    result = Board.KEY_EMPTY;
+                }
+                
+                turn = (turn == key) ? opponentKey : key;
+            }
+            
+            //score each node for the player who made the move leading to it
+            for (int i = depth; i >= 0; i--)
+            {
+                final int mover = (i % 2 == 1) ? key : opponentKey;
+                final int score = (result == mover) ? SCORE_WIN : (result == Board.KEY_EMPTY) ? SCORE_TIE : 0;
+                
+                this.nodeVisits[path[i]]++;
+                this.nodeScores[path[i]] += score;
+                
+                //the moves at the start of the search are added up for every thread
+                if (i == 1)
+                {
+                    visits.incrementAndGet(nodeMove[path[i]]);
+                    scores.addAndGet(nodeMove[path[i]], score);
+                }
+            }
+            
+            //undo every move
+            for (int i = 0; i < moves; i++)
+            {
+                storage.setKey(placed[i] % cols, placed[i] / cols, Board.KEY_EMPTY);
+            }
+        }
+        
+        /**
+         * Add a child to the node for every empty location
+         * @param node The index of the node
+         */
+        private void expand(final int node)
+        {
+            this.nodeFirstChild[node] = nodeCount;
+            
+            for (int i = 0; i < emptyCount; i++)
+            {
+                if (storage.getKey(empties[i] % cols, empties[i] / cols) == Board.KEY_EMPTY)
+                    clearNode(nodeCount++, empties[i]);
+            }
+            
+            this.nodeChildCount[node] = nodeCount - nodeFirstChild[node];
+        }
+        
+        /**
+         * Choose the child with the highest upper confidence bound, children that have never been visited come first
+         * @param node The index of the node
+         * @return The index of the chosen child
+         */
+        private int select(final int node)
+        {
+            final double log = Math.log(nodeVisits[node] + 1);
+            final int first = nodeFirstChild[node];
+            final int last = first + nodeChildCount[node];
+            
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            
+            for (int child = first; child < last; child++)
+            {
+                if (nodeVisits[child] == 0)
+                    return child;
+                
+                final double value = (nodeScores[child] / (double)(SCORE_WIN * nodeVisits[child])) + (EXPLORATION * Math.sqrt(log / nodeVisits[child]));
+                
+                if (value > bestValue)
+                {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            
+            return best;
+        }
+        
+        /**
+         * Choose a random empty location for the playout
+         * @return The index of the location
+         */
+        private int choose()
+        {
+            while (true)
+            {
+                //take a random location out of the list
+                final int i = random.nextInt(choiceCount);
+                final int move = choices[i];
+                this.choices[i] = choices[--choiceCount];
+                
+                //locations taken by the tree are skipped
+                if (storage.getKey(move % cols, move / cols) == Board.KEY_EMPTY)
+                    return move;
+            }
+        }
+    }
+}
\ No newline at end of file
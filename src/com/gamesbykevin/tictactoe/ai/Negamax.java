@@ -0,0 +1,559 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.Zobrist;
+
+/**
+ * Game tree search using negamax with alpha-beta pruning.<br>
+ * The search is repeated with an increasing depth until the time budget runs out,
+ * and the best move of each iteration is searched first in the next.
+ * @author ABRAHAM
+ */
+public final class Negamax
+{
+    /**
+     * The default time (milliseconds) we can spend searching for a move.<br>
+     * This keeps the search inside a single frame of the main thread.
+     */
+    public static final long DEFAULT_TIME_BUDGET = 20;
+    
+    /**
+     * The score for a win, quicker wins will score higher
+     */
+    public static final int SCORE_WIN = 1000000;
+    
+    /**
+     * Larger than any score
+     */
+    static final int SCORE_INFINITY = SCORE_WIN + 1;
+    
+    //how many nodes we visit before checking the time
+    private static final int TIME_CHECK_INTERVAL = 0xFF;
+    
+    //the time (milliseconds) we can spend searching
+    private final long timeBudget;
+    
+    //the positions we have already searched
+    private final TranspositionTable table;
+    
+    //the board we are searching, a copy that is reused so the game is not affected
+    private Board board;
+    
+    //the moves for each ply of the search, reused so nothing is allocated while searching
+    private int[][] moves;
+    
+    //the number of columns on the board
+    private int cols;
+    
+    //the threats of each player, kept up to date as moves are made and undone
+    private ThreatEvaluator threats;
+    
+    //every location on the board, the ones part of the most lines first
+    private int[] order;
+    
+    //the time (nanoseconds) the search has to be finished, another thread can move it to stop the search
+    private volatile long deadline;
+    
+    //did we run out of time
+    private boolean timeout;
+    
+    //the number of positions visited
+    private long nodes;
+    
+    //the deepest search that was completed
+    private int depth;
+    
+    /**
+     * Create a search with the default time budget
+     */
+    public Negamax()
+    {
+        this(DEFAULT_TIME_BUDGET);
+    }
+    
+    /**
+     * Create a search
+     * @param timeBudget The time (milliseconds) we can spend searching for a move
+     */
+    public Negamax(final long timeBudget)
+    {
+        this(timeBudget, new TranspositionTable());
+    }
+    
+    /**
+     * Create a search that stores positions in an existing table
+     * @param timeBudget The time (milliseconds) we can spend searching for a move
+     * @param table The table of searched positions, this can be shared between searches
+     */
+    public Negamax(final long timeBudget, final TranspositionTable table)
+    {
+        this.timeBudget = timeBudget;
+        this.table = table;
+    }
+    
+    /**
+     * Get the number of positions visited during the last search
+     * @return The number of positions visited
+     */
+    public long getNodes()
+    {
+        return this.nodes;
+    }
+    
+    /**
+     * Get the deepest search completed during the last search
+     * @return The number of moves searched ahead
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+    
+    /**
+     * Search for the best move
+     * @param source The board we are playing on, it will not be modified
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The index (row * cols + col) of the best location, -1 if the board is full
+     */
+    public int search(final Board source, final int key, final int opponentKey)
+    {
+        //we can't move if there are no empty locations
+        if (source.getEmptyCount() == 0)
+            return -1;
+        
+        //the stored positions are no use if the dimensions changed
+        if (board == null || board.getCols() != source.getCols() || board.getRows() != source.getRows() || board.getMatchCount() != source.getMatchCount())
+            table.clear();
+        
+        //entries from previous moves are still useful, but can be replaced first
+        table.newSearch();
+        
+        //search a copy so the game is not affected
+        prepare(source, System.nanoTime() + (timeBudget * 1000000L));
+        
+        //the moves at the start of the search
+        final int[] rootMoves = this.moves[0];
+        final int count = getMoves(0, -1);
+        
+        //default to the first move in case we run out of time right away
+        int bestMove = rootMoves[0];
+        
+        for (int searchDepth = 1; searchDepth <= board.getEmptyCount(); searchDepth++)
+        {
+            int alpha = -SCORE_INFINITY;
+            int iterationMove = -1;
+            
+            for (int i = 0; i < count; i++)
+            {
+                final int score = searchRoot(rootMoves[i], searchDepth, alpha, key, opponentKey);
+                
+                if (timeout)
+                    break;
+                
+                if (score > alpha)
+                {
+                    alpha = score;
+                    iterationMove = i;
+                }
+            }
+            
+            //if we ran out of time, this iteration is incomplete
+            if (timeout)
+                break;
+            
+            //the best move will be searched first on the next iteration
+            bestMove = rootMoves[iterationMove];
+            System.arraycopy(rootMoves, 0, rootMoves, 1, iterationMove);
+            rootMoves[0] = bestMove;
+            
+            this.depth = searchDepth;
+            
+            //if we found a forced win or loss, searching deeper won't change it
+            if (isDecided(alpha))
+                break;
+        }
+        
+        return bestMove;
+    }
+    
+    /**
+     * Prepare a new search
+     * @param source The board we will search a copy of
+     * @param deadline The time (nanoseconds) the search has to be finished
+     */
+    void prepare(final Board source, final long deadline)
+    {
+        setup(source);
+        
+        this.deadline = deadline;
+        this.timeout = false;
+        this.nodes = 0;
+        this.depth = 0;
+    }
+    
+    /**
+     * Copy the moves at the start of the search, in the order they should be searched
+     * @param destination Array to copy the moves to
+     * @return The number of moves
+     */
+    int getRootMoves(final int[] destination)
+    {
+        final int count = getMoves(0, -1);
+        System.arraycopy(this.moves[0], 0, destination, 0, count);
+        return count;
+    }
+    
+    /**
+     * Score a single move at the start of the search
+     * @param move The index of the location
+     * @param depth The number of moves to search including this one
+     * @param alpha The score the move has to beat to be useful
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The score of the move, exact if it is higher than alpha
+     */
+    int searchRoot(final int move, final int depth, final int alpha, final int key, final int opponentKey)
+    {
+        return play(move, depth, 1, alpha, SCORE_INFINITY, key, opponentKey);
+    }
+    
+    /**
+     * Stop the search as soon as it next checks the time, this can be called from any thread
+     */
+    void stop()
+    {
+        this.deadline = Long.MIN_VALUE;
+    }
+    
+    /**
+     * Did the last search run out of time?
+     * @return true = yes, false = no
+     */
+    boolean hasTimedOut()
+    {
+        return this.timeout;
+    }
+    
+    /**
+     * Prepare the search for the board
+     * @param source The board we will search a copy of
+     */
+    private void setup(final Board source)
+    {
+        //we only need to allocate these again if the dimensions changed
+        if (this.board == null || this.board.getCols() != source.getCols() || this.board.getRows() != source.getRows() || this.board.getMatchCount() != source.getMatchCount())
+        {
+            this.board = new Board(source);
+            this.cols = board.getCols();
+            
+            //a buffer for the root and each ply that follows
+            this.moves = new int[(board.getCols() * board.getRows()) + 2][board.getCols() * board.getRows()];
+            
+            //every line is counted when evaluating a position
+            this.threats = new ThreatEvaluator(board.getCols(), board.getRows(), board.getMatchCount());
+            
+            //count how many lines each location is part of
+            final int[] weights = new int[board.getCols() * board.getRows()];
+            
+            for (int i = 0; i < weights.length; i++)
+            {
+                weights[i] = threats.getLineCount(i);
+            }
+            
+            //order the locations so the ones part of the most lines come first
+            this.order = new int[weights.length];
+            
+            for (int i = 0; i < order.length; i++)
+            {
+                int index = i;
+                
+                while (index > 0 && weights[order[index - 1]] < weights[i])
+                {
+                    this.order[index] = order[index - 1];
+                    index--;
+                }
+                
+                this.order[index] = i;
+            }
+        }
+        else
+        {
+            this.board.copy(source);
+        }
+        
+        //count the lines for the keys already placed, from here on they are updated with each move
+        this.threats.reset(board);
+    }
+    
+    /**
+     * Is the score a forced win or loss?
+     * @param score The score
+     * @return true = yes, false = no
+     */
+    boolean isDecided(final int score)
+    {
+        return (Math.abs(score) >= SCORE_WIN - order.length);
+    }
+    
+    /**
+     * Adjust a win/loss score so it is relative to the position before it is stored
+     * @param score The score relative to the start of the search
+     * @param ply The number of moves from the start of the search
+     * @return The score to store in the table
+     */
+    private int toTable(final int score, final int ply)
+    {
+        if (score >= SCORE_WIN - order.length)
+            return score + ply;
+        if (score <= -(SCORE_WIN - order.length))
+            return score - ply;
+        
+        return score;
+    }
+    
+    /**
+     * Adjust a win/loss score from the table so it is relative to the start of the search
+     * @param score The score stored in the table
+     * @param ply The number of moves from the start of the search
+     * @return The score relative to the start of the search
+     */
+    private int fromTable(final int score, final int ply)
+    {
+        if (score >= SCORE_WIN - order.length)
+            return score - ply;
+        if (score <= -(SCORE_WIN - order.length))
+            return score + ply;
+        
+        return score;
+    }
+    
+    /**
+     * Fill the buffer for the ply with the locations in the order they should be searched.<br>
+     * Only the candidates near occupied locations are searched, unless the board is empty.
+     * @param ply The number of moves from the start of the search, 0 for the root
+     * @param first The index of the location to search first, -1 if none
+     * @return The number of moves in the buffer
+     */
+    private int getMoves(final int ply, final int first)
+    {
+        final int[] buffer = this.moves[ply];
+        
+        //an empty board has no candidates, so every location is searched
+        final boolean all = (board.getCandidateCount() == 0);
+        final int total = (all) ? board.getEmptyCount() : board.getCandidateCount();
+        
+        int count = 0;
+        
+        //the best move from a previous search goes first
+        if (first >= 0 && (all || board.isCandidate(first)) && board.getKey(first % cols, first / cols) == Board.KEY_EMPTY)
+            buffer[count++] = first;
+        
+        for (int i = 0; i < order.length && count < total; i++)
+        {
+            if (order[i] == first)
+                continue;
+            
+            if (all)
+            {
+                if (board.getKey(order[i] % cols, order[i] / cols) == Board.KEY_EMPTY)
+                    buffer[count++] = order[i];
+            }
+            else
+            {
+                if (board.isCandidate(order[i]))
+                    buffer[count++] = order[i];
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Make the move, score it and then undo it
+     * @param move The index of the location
+     * @param depth The number of moves left to search including this one
+     * @param ply The number of moves from the start of the search including this one
+     * @param alpha The lowest score the player making the move is assured of
+     * @param beta The highest score the opponent will allow
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The score from the point of view of the player making the move
+     */
+    private int play(final int move, final int depth, final int ply, final int alpha, final int beta, final int key, final int opponentKey)
+    {
+        final int col = move % cols;
+        final int row = move / cols;
+        
+        board.setKey(col, row, key);
+        threats.place(move, key);
+        
+        final int score;
+        
+        if (board.hasMatch(col, row))
+        {
+            //the move wins the game
+            score = SCORE_WIN - ply;
+        }
+        else if (board.getEmptyCount() == 0)
+        {
+            //the move ends the game in a tie
+            score = 0;
+        }
+        else if (depth <= 1)
+        {
+            //we can't search any deeper, so estimate the score
+            visit();
+            
+            if (threats.hasFour(opponentKey))
+            {
+                //the opponent moves next and completes a match
+                score = -(SCORE_WIN - (ply + 1));
+            }
+            else
+            {
+                score = evaluate(key);
+            }
+        }
+        else
+        {
+            score = -negamax(depth - 1, ply + 1, -beta, -alpha, opponentKey, key);
+        }
+        
+        //undo the move
+        board.setKey(col, row, Board.KEY_EMPTY);
+        threats.remove(move);
+        
+        return score;
+    }
+    
+    /**
+     * Count a position as visited and check the time every so often.<br>
+     * Positions that are only evaluated are counted too, on large boards an evaluation is most of the work.
+     * @return true if we ran out of time, false otherwise
+     */
+    private boolean visit()
+    {
+        this.nodes++;
+        
+        if ((nodes & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline)
+            this.timeout = true;
+        
+        return this.timeout;
+    }
+    
+    /**
+     * Search the current position
+     * @param depth The number of moves left to search
+     * @param ply The number of moves from the start of the search
+     * @param alpha The lowest score the player to move is assured of
+     * @param beta The highest score the opponent will allow
+     * @param key The key of the player to move
+     * @param opponentKey The key of the opponent
+     * @return The score from the point of view of the player to move
+     */
+    private int negamax(final int depth, final int ply, int alpha, int beta, final int key, final int opponentKey)
+    {
+        if (visit())
+            return 0;
+        
+        //every rotation/reflection of a position is stored once, as its canonical form
+        final int symmetry = board.getCanonicalSymmetry();
+        
+        //the same position with a different player to move is a different position
+        final long hash = board.getHash(symmetry) ^ Zobrist.getSide(key);
+        
+        //check if we have searched this position before
+        final long entry = table.probe(hash);
+        
+        if (entry != TranspositionTable.NONE && TranspositionTable.getDepth(entry) >= depth)
+        {
+            final int score = fromTable(TranspositionTable.getScore(entry), ply);
+            
+            switch (TranspositionTable.getBound(entry))
+            {
+                case TranspositionTable.BOUND_EXACT:
+                    return score;
+                    
+                case TranspositionTable.BOUND_LOWER:
+                    alpha = Math.max(alpha, score);
+                    break;
+                    
+                case TranspositionTable.BOUND_UPPER:
+                    beta = Math.min(beta, score);
+                    break;
+            }
+            
+            if (alpha >= beta)
+                return score;
+        }
+        
+        //the original window determines the bound type of the result
+        final int alphaOriginal = alpha;
+        
+        //search the best move we stored first, it is stored for the canonical form
+        final int storedMove = (entry == TranspositionTable.NONE) ? -1 : TranspositionTable.getMove(entry);
+        final int[] buffer = this.moves[ply];
+        final int count = getMoves(ply, storedMove < 0 ? -1 : board.getSymmetry().inverse(symmetry, storedMove));
+        
+        int best = -SCORE_INFINITY;
+        int bestMove = -1;
+        
+        for (int i = 0; i < count; i++)
+        {
+            final int score = play(buffer[i], depth, ply, alpha, beta, key, opponentKey);
+            
+            if (timeout)
+                return 0;
+            
+            if (score > best)
+            {
+                best = score;
+                bestMove = buffer[i];
+            }
+            
+            if (best > alpha)
+                alpha = best;
+            
+            //the opponent won't allow this position, no need to keep looking
+            if (alpha >= beta)
+                break;
+        }
+        
+        //store the result for the next time we see this position
+        final int bound;
+        
+        if (best <= alphaOriginal)
+        {
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        else if (best >= beta)
+        {
+            bound = TranspositionTable.BOUND_LOWER;
+        }
+        else
+        {
+            bound = TranspositionTable.BOUND_EXACT;
+        }
+        
+        table.store(hash, toTable(best, ply), depth, bound, bestMove < 0 ? -1 : board.getSymmetry().transform(symmetry, bestMove));
+        
+        return best;
+    }
+    
+    /**
+     * Estimate the score of the current position.<br>
+     * Each line that only contains keys of one player counts towards that player.
+     * @param key The key of the player we are scoring for
+     * @return The score from the point of view of the player
+     */
+    private int evaluate(final int key)
+    {
+        final int score = threats.evaluate(key);
+        
+        //on large boards the lines can add up, an estimate can't be mistaken for a win or loss
+        final int limit = SCORE_WIN - order.length - 1;
+        
+        return Math.max(-limit, Math.min(limit, score));
+    }
+}
\ No newline at end of file
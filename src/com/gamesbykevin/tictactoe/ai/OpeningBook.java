@@ -0,0 +1,129 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The perfect move for every position on the default board, solved ahead of time.<br>
+ * The table has one byte for each position and player to move, containing the index of the best location.
+ * A position is indexed by reading the board as a base 3 number (empty = 0, X = 1, O = 2).
+ * @author ABRAHAM
+ */
+public final class OpeningBook
+{
+    /**
+     * The dimensions of the board the book was solved for
+     */
+    public static final int DIMENSION = 3;
+    
+    /**
+     * The number of positions on the board (3 ^ 9)
+     */
+    public static final int POSITIONS = 19683;
+    
+    /**
+     * The number of entries in the table, each position has an entry for each player to move
+     */
+    public static final int SIZE = POSITIONS * 2;
+    
+    /**
+     * The move stored for positions that can't be reached or are already over
+     */
+    public static final int NONE = -1;
+    
+    //the best move for each entry
+    private final byte[] moves;
+    
+    /**
+     * Create an opening book
+     * @param moves The best move for each entry, NONE if there is no move
+     */
+    public OpeningBook(final byte[] moves)
+    {
+        if (moves.length != SIZE)
+            throw new IllegalArgumentException("Opening book must have " + SIZE + " entries, found " + moves.length);
+        
+        this.moves = moves;
+    }
+    
+    /**
+     * Read an opening book, the stream will be closed
+     * @param stream The stream containing the table
+     * @return The opening book
+     * @throws IOException If the table can't be read
+     */
+    public static OpeningBook load(final InputStream stream) throws IOException
+    {
+        final DataInputStream input = new DataInputStream(stream);
+        
+        try
+        {
+            final byte[] moves = new byte[SIZE];
+            input.readFully(moves);
+            return new OpeningBook(moves);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+    
+    /**
+     * Write the opening book
+     * @param stream The stream we want to write the table to
+     * @throws IOException If the table can't be written
+     */
+    public void write(final OutputStream stream) throws IOException
+    {
+        stream.write(moves);
+    }
+    
+    /**
+     * Was the book solved for this board?
+     * @param board The board we are playing on
+     * @return true if the board has the same dimensions and match count as the book, false otherwise
+     */
+    public static boolean supports(final Board board)
+    {
+        return (board.getCols() == DIMENSION && board.getRows() == DIMENSION && board.getMatchCount() == DIMENSION);
+    }
+    
+    /**
+     * Get the index of the position in the table
+     * @param board The board we are playing on
+     * @param key The key of the player to move
+     * @return The index of the entry for the position and player to move
+     */
+    public static int getIndex(final Board board, final int key)
+    {
+        int index = 0;
+        
+        for (int row = DIMENSION - 1; row >= 0; row--)
+        {
+            for (int col = DIMENSION - 1; col >= 0; col--)
+            {
+                index = (index * 3) + board.getKey(col, row);
+            }
+        }
+        
+        return (index * 2) + ((key == Board.KEY_O) ? 1 : 0);
+    }
+    
+    /**
+     * Get the best move
+     * @param board The board we are playing on
+     * @param key The key of the player to move
+     * @return The index (row * cols + col) of the best location, NONE if the position isn't in the book
+     */
+    public int getMove(final Board board, final int key)
+    {
+        if (!supports(board))
+            return NONE;
+        
+        return moves[getIndex(board, key)];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,412 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Negamax search that splits the moves at the start of the search between several threads.<br>
+ * On each iteration the first (best so far) move is searched alone to get a score to beat,
+ * then the remaining moves are shared between the threads, which all use the same transposition table.
+ * @author ABRAHAM
+ */
+public final class ParallelSearch
+{
+    /**
+     * The default number of threads, one for each available core
+     */
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    
+    //the time (milliseconds) we can spend searching
+    private final long timeBudget;
+    
+    //the positions we have already searched, shared by every thread
+    private final TranspositionTable table;
+    
+    //the search for each thread, the first is used by the thread calling search
+    private final Negamax[] workers;
+    
+    //the threads helping with the search, null if there is only one thread
+    private final ExecutorService executor;
+    
+    //the tasks for the helping threads, reused each iteration
+    private final RootTask[] tasks;
+    
+    //the results of the tasks on the helping threads, reused each iteration
+    private final Future<?>[] futures;
+    
+    //the moves at the start of the search
+    private int[] moves;
+    
+    //the score of each move, and whether the score is exact
+    private int[] scores;
+    private boolean[] exact;
+    
+    //the index of the next move to search
+    private final AtomicInteger next = new AtomicInteger();
+    
+    //the best score found so far in the current iteration
+    private final AtomicInteger alpha = new AtomicInteger();
+    
+    //the dimensions and match count of the last board searched
+    private int cols = -1, rows = -1, matchCount = -1;
+    
+    //the deepest search that was completed
+    private int depth;
+    
+    /**
+     * Create a search with one thread for each available core
+     * @param timeBudget The time (milliseconds) we can spend searching for a move
+     */
+    public ParallelSearch(final long timeBudget)
+    {
+        this(timeBudget, DEFAULT_THREADS);
+    }
+    
+    /**
+     * Create a search
+     * @param timeBudget The time (milliseconds) we can spend searching for a move
+     * @param threads The number of threads searching, including the thread calling search
+     */
+    public ParallelSearch(final long timeBudget, final int threads)
+    {
+        if (threads < 1)
+            throw new IllegalArgumentException("At least 1 thread is required: " + threads);
+        
+        this.timeBudget = timeBudget;
+        this.table = new TranspositionTable();
+        this.workers = new Negamax[threads];
+        this.tasks = new RootTask[threads];
+        this.futures = new Future<?>[threads];
+        
+        for (int i = 0; i < threads; i++)
+        {
+            this.workers[i] = new Negamax(timeBudget, table);
+            this.tasks[i] = new RootTask(workers[i]);
+        }
+        
+        if (threads > 1)
+        {
+            this.executor = Executors.newFixedThreadPool(threads - 1, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(final Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, "Search");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        else
+        {
+            this.executor = null;
+        }
+    }
+    
+    /**
+     * Get the number of threads searching
+     * @return The number of threads, including the thread calling search
+     */
+    public int getThreads()
+    {
+        return this.workers.length;
+    }
+    
+    /**
+     * Get the number of positions visited by every thread during the last search
+     * @return The number of positions visited
+     */
+    public long getNodes()
+    {
+        long nodes = 0;
+        
+        for (int i = 0; i < workers.length; i++)
+        {
+            nodes += workers[i].getNodes();
+        }
+        
+        return nodes;
+    }
+    
+    /**
+     * Get the deepest search completed during the last search
+     * @return The number of moves searched ahead
+     */
+    public int getDepth()
+    {
+        return this.depth;
+    }
+    
+    /**
+     * Forget every position searched so far
+     */
+    public void clear()
+    {
+        table.clear();
+    }
+    
+    /**
+     * Stop the helping threads, the search can't be used afterwards
+     */
+    public void shutdown()
+    {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+    
+    /**
+     * Search for the best move
+     * @param source The board we are playing on, it will not be modified
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return The index (row * cols + col) of the best location, -1 if the board is full
+     */
+    public int search(final Board source, final int key, final int opponentKey)
+    {
+        //we can't move if there are no empty locations
+        if (source.getEmptyCount() == 0)
+            return -1;
+        
+        //the stored positions are no use if the dimensions changed
+        if (source.getCols() != cols || source.getRows() != rows || source.getMatchCount() != matchCount)
+        {
+            this.cols = source.getCols();
+            this.rows = source.getRows();
+            this.matchCount = source.getMatchCount();
+            this.moves = new int[cols * rows];
+            this.scores = new int[cols * rows];
+            this.exact = new boolean[cols * rows];
+            table.clear();
+        }
+        
+        //entries from previous moves are still useful, but can be replaced first
+        table.newSearch();
+        
+        //every thread searches its own copy of the board
+        final long deadline = System.nanoTime() + (timeBudget * 1000000L);
+        
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i].prepare(source, deadline);
+        }
+        
+        final Negamax main = workers[0];
+        final int count = main.getRootMoves(moves);
+        
+        //default to the first move in case we run out of time right away
+        int bestMove = moves[0];
+        
+        this.depth = 0;
+        
+        for (int searchDepth = 1; searchDepth <= source.getEmptyCount(); searchDepth++)
+        {
+            //the first move is searched alone, so the other threads have a score to beat
+            scores[0] = main.searchRoot(moves[0], searchDepth, -Negamax.SCORE_INFINITY, key, opponentKey);
+            exact[0] = true;
+            
+            if (main.hasTimedOut())
+                break;
+            
+            //share the remaining moves between the threads
+            alpha.set(scores[0]);
+            next.set(1);
+            
+            if (!searchRemaining(count, searchDepth, key, opponentKey))
+                break;
+            
+            //pick the best move with an exact score, the first move wins ties
+            int iterationMove = 0;
+            
+            for (int i = 1; i < count; i++)
+            {
+                if (exact[i] && scores[i] > scores[iterationMove])
+                    iterationMove = i;
+            }
+            
+            //the best move will be searched first on the next iteration
+            final int bestScore = scores[iterationMove];
+            bestMove = moves[iterationMove];
+            System.arraycopy(moves, 0, moves, 1, iterationMove);
+            moves[0] = bestMove;
+            
+            this.depth = searchDepth;
+            
+            //if we found a forced win or loss, searching deeper won't change it
+            if (main.isDecided(bestScore))
+                break;
+        }
+        
+        return bestMove;
+    }
+    
+    /**
+     * Search the moves after the first on every thread
+     * @param count The number of moves at the start of the search
+     * @param depth The number of moves to search
+     * @param key The key of the player making the move
+     * @param opponentKey The key of the opponent
+     * @return true if every move was searched, false if we ran out of time
+     * @throws RuntimeException If a helping thread failed, once every thread has finished
+     */
+    private boolean searchRemaining(final int count, final int depth, final int key, final int opponentKey)
+    {
+        for (int i = 0; i < tasks.length; i++)
+        {
+            tasks[i].setup(count, depth, key, opponentKey);
+        }
+        
+        //start the helping threads
+        for (int i = 1; i < tasks.length; i++)
+        {
+            this.futures[i] = executor.submit(tasks[i]);
+        }
+        
+        //the calling thread helps as well
+        boolean complete = tasks[0].call();
+        
+        //was the calling thread interrupted while waiting
+        boolean interrupted = false;
+        
+        //the first error thrown by a helping thread
+        Throwable failure = null;
+        
+        //wait for the helping threads to finish, even if interrupted, since they use the shared moves and scores
+        for (int i = 1; i < futures.length; i++)
+        {
+            while (true)
+            {
+                try
+                {
+                    if (!Boolean.TRUE.equals(futures[i].get()))
+                        complete = false;
+                    
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    //tell every thread to stop, then keep waiting
+                    interrupted = true;
+                    complete = false;
+                    stop();
+                }
+                catch (ExecutionException e)
+                {
+                    //the other threads are stopped and waited for before the error is thrown
+                    if (failure == null)
+                        failure = e.getCause();
+                    
+                    complete = false;
+                    stop();
+                    break;
+                }
+            }
+            
+            this.futures[i] = null;
+        }
+        
+        //only restore the interrupt once no thread is using the search
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        
+        if (failure != null)
+            throw rethrow(failure);
+        
+        return complete;
+    }
+    
+    /**
+     * Get an error thrown by a helping thread, so it can be thrown by the thread calling search
+     * @param failure The error
+     * @return The error if it is unchecked, else the error wrapped in an unchecked exception
+     */
+    static RuntimeException rethrow(final Throwable failure)
+    {
+        if (failure instanceof Error)
+            throw (Error)failure;
+        
+        if (failure instanceof RuntimeException)
+            return (RuntimeException)failure;
+        
+        return new IllegalStateException("Search failed on a helping thread", failure);
+    }
+    
+    /**
+     * Stop every thread as soon as it next checks the time
+     */
+    private void stop()
+    {
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i].stop();
+        }
+    }
+    
+    /**
+     * Takes the next move to search until every move has been searched
+     */
+    private final class RootTask implements Callable<Boolean>
+    {
+        //the search used by this task
+        private final Negamax worker;
+        
+        //what the task is searching
+        private int count, depth, key, opponentKey;
+        
+        private RootTask(final Negamax worker)
+        {
+            this.worker = worker;
+        }
+        
+        private void setup(final int count, final int depth, final int key, final int opponentKey)
+        {
+            this.count = count;
+            this.depth = depth;
+            this.key = key;
+            this.opponentKey = opponentKey;
+        }
+        
+        /**
+         * Search moves until there are none left
+         * @return true if every move was searched, false if we ran out of time
+         */
+        @Override
+        public Boolean call()
+        {
+            while (true)
+            {
+                final int index = next.getAndIncrement();
+                
+                //every move has been taken
+                if (index >= count)
+                    return Boolean.TRUE;
+                
+                //the score this move has to beat
+                final int bound = alpha.get();
+                
+                final int score = worker.searchRoot(moves[index], depth, bound, key, opponentKey);
+                
+                if (worker.hasTimedOut())
+                    return Boolean.FALSE;
+                
+                //a score that doesn't beat the bound is only an upper limit
+                scores[index] = score;
+                exact[index] = (score > bound);
+                
+                //raise the score the other threads have to beat
+                int current = alpha.get();
+                
+                while (score > current && !alpha.compareAndSet(current, score))
+                {
+                    current = alpha.get();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.BoardHelper;
+
+/**
+ * Counts the threats of each player along every line of the board.<br>
+ * A line is every run of match count consecutive locations, and each line without opponent keys
+ * counts towards the player with keys in it. An open three is part of more of these lines than a closed one,
+ * so open and closed threats are scored differently without having to look for them.<br>
+ * The counts are kept up to date as keys are placed and removed, so evaluating a position
+ * only adds up the number of lines for each number of keys.
+ * @author ABRAHAM
+ */
+public final class ThreatEvaluator
+{
+    //the dimensions and match count of the board
+    private final int cols, rows, matchCount;
+    
+    //every line on the board, each containing the index of match count consecutive locations
+    private final int[][] lines;
+    
+    //the lines passing through each location
+    private final int[][] locationLines;
+    
+    //the number of keys of each player in each line
+    private final int[] countX, countO;
+    
+    //the number of lines without opponent keys, for each number of keys of the player
+    private final int[] totalX, totalO;
+    
+    //the score for each number of keys in a line without any opponent keys
+    private final int[] lineScores;
+    
+    //the key at each location
+    private final int[] keys;
+    
+    /**
+     * Create an evaluator for boards of the specified dimensions
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public ThreatEvaluator(final int cols, final int rows, final int matchCount)
+    {
+        this.cols = cols;
+        this.rows = rows;
+        this.matchCount = matchCount;
+        this.lines = BoardHelper.createLines(cols, rows, matchCount);
+        this.countX = new int[lines.length];
+        this.countO = new int[lines.length];
+        this.totalX = new int[matchCount + 1];
+        this.totalO = new int[matchCount + 1];
+        this.keys = new int[cols * rows];
+        
+        //count the lines through each location first so we know the size of each array
+        final int[] counts = new int[cols * rows];
+        
+        for (int i = 0; i < lines.length; i++)
+        {
+            for (int j = 0; j < lines[i].length; j++)
+            {
+                counts[lines[i][j]]++;
+            }
+        }
+        
+        this.locationLines = new int[cols * rows][];
+        
+        for (int index = 0; index < locationLines.length; index++)
+        {
+            this.locationLines[index] = new int[counts[index]];
+            counts[index] = 0;
+        }
+        
+        for (int i = 0; i < lines.length; i++)
+        {
+            for (int j = 0; j < lines[i].length; j++)
+            {
+                final int index = lines[i][j];
+                this.locationLines[index][counts[index]++] = i;
+            }
+        }
+        
+        //each key in a line is worth more than all shorter lines
+        this.lineScores = new int[matchCount + 1];
+        
+        for (int count = 1; count < lineScores.length; count++)
+        {
+            this.lineScores[count] = 1 << (3 * (count - 1));
+        }
+    }
+    
+    /**
+     * Does the evaluator fit the board?
+     * @param board The board
+     * @return true if the dimensions and match count are the same, false otherwise
+     */
+    public boolean supports(final Board board)
+    {
+        return (board.getCols() == cols && board.getRows() == rows && board.getMatchCount() == matchCount);
+    }
+    
+    /**
+     * Count the lines for the keys on the board
+     * @param board The board, it has to have the same dimensions and match count
+     */
+    public void reset(final Board board)
+    {
+        for (int i = 0; i < lines.length; i++)
+        {
+            this.countX[i] = 0;
+            this.countO[i] = 0;
+        }
+        
+        for (int count = 0; count <= matchCount; count++)
+        {
+            this.totalX[count] = 0;
+            this.totalO[count] = 0;
+        }
+        
+        //every line starts out empty
+        this.totalX[0] = lines.length;
+        this.totalO[0] = lines.length;
+        
+        for (int index = 0; index < keys.length; index++)
+        {
+            this.keys[index] = Board.KEY_EMPTY;
+            
+            final int key = board.getKey(index % cols, index / cols);
+            
+            if (key != Board.KEY_EMPTY)
+                place(index, key);
+        }
+    }
+    
+    /**
+     * Update the counts for a key placed on the board
+     * @param index The index (row * cols + col) of the location
+     * @param key The key placed
+     */
+    public void place(final int index, final int key)
+    {
+        final int[] through = locationLines[index];
+        final int[] count = (key == Board.KEY_X) ? countX : countO;
+        
+        for (int i = 0; i < through.length; i++)
+        {
+            uncount(through[i]);
+            count[through[i]]++;
+            count(through[i]);
+        }
+        
+        this.keys[index] = key;
+    }
+    
+    /**
+     * Update the counts for a key removed from the board
+     * @param index The index (row * cols + col) of the location
+     */
+    public void remove(final int index)
+    {
+        final int[] through = locationLines[index];
+        final int[] count = (keys[index] == Board.KEY_X) ? countX : countO;
+        
+        for (int i = 0; i < through.length; i++)
+        {
+            uncount(through[i]);
+            count[through[i]]--;
+            count(through[i]);
+        }
+        
+        this.keys[index] = Board.KEY_EMPTY;
+    }
+    
+    /**
+     * Add the line to the totals of the player it counts towards
+     * @param line The index of the line
+     */
+    private void count(final int line)
+    {
+        if (countO[line] == 0)
+            this.totalX[countX[line]]++;
+        if (countX[line] == 0)
+            this.totalO[countO[line]]++;
+    }
+    
+    /**
+     * Remove the line from the totals of the player it counts towards
+     * @param line The index of the line
+     */
+    private void uncount(final int line)
+    {
+        if (countO[line] == 0)
+            this.totalX[countX[line]]--;
+        if (countX[line] == 0)
+            this.totalO[countO[line]]--;
+    }
+    
+    /**
+     * Get the number of lines where the player has the number of keys and the opponent has none
+     * @param key The key of the player
+     * @param count The number of keys
+     * @return The number of lines
+     */
+    public int getTotal(final int key, final int count)
+    {
+        return (key == Board.KEY_X) ? totalX[count] : totalO[count];
+    }
+    
+    /**
+     * Can the player win with their next move?
+     * @param key The key of the player
+     * @return true if a line is one key away from a match for the player, false otherwise
+     */
+    public boolean hasFour(final int key)
+    {
+        return (getTotal(key, matchCount - 1) > 0);
+    }
+    
+    /**
+     * Score the position
+     * @param key The key of the player we are scoring for
+     * @return The score from the point of view of the player
+     */
+    public int evaluate(final int key)
+    {
+        final int[] own = (key == Board.KEY_X) ? totalX : totalO;
+        final int[] other = (key == Board.KEY_X) ? totalO : totalX;
+        
+        int score = 0;
+        
+        for (int count = 1; count <= matchCount; count++)
+        {
+            score += (own[count] - other[count]) * lineScores[count];
+        }
+        
+        return score;
+    }
+    
+    /**
+     * Get the number of lines passing through the location
+     * @param index The index (row * cols + col) of the location
+     * @return The number of lines
+     */
+    public int getLineCount(final int index)
+    {
+        return locationLines[index].length;
+    }
+    
+    /**
+     * Get the key at the location
+     * @param index The index (row * cols + col) of the location
+     * @return The key (empty, X, O)
+     */
+    int getKey(final int index)
+    {
+        return this.keys[index];
+    }
+    
+    /**
+     * Get every line on the board
+     * @return Array of lines, each containing the index of match count consecutive locations
+     */
+    int[][] getLines()
+    {
+        return this.lines;
+    }
+    
+    /**
+     * Get the number of keys of the player in the line
+     * @param line The index of the line
+     * @param key The key of the player
+     * @return The number of keys
+     */
+    int getCount(final int line, final int key)
+    {
+        return (key == Board.KEY_X) ? countX[line] : countO[line];
+    }
+    
+    /**
+     * Get the number of consecutive matches to identify a winner
+     * @return The number of keys in a line needed to win
+     */
+    int getMatchCount()
+    {
+        return this.matchCount;
+    }
+    
+    /**
+     * Get the number of locations on the board
+     * @return The number of locations
+     */
+    int getSize()
+    {
+        return this.keys.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+/**
+ * Threat-space search for a forced win by continuous fours.<br>
+ * The attacker only plays moves that leave a line one key away from a match,
+ * so the defender only ever has one reply, and the attacker wins once two lines can't both be blocked.
+ * With the defender's replies forced the search is narrow enough to look much further ahead than the game tree search.
+ * @author ABRAHAM
+ */
+public final class ThreatSearch
+{
+    /**
+     * The default number of threats the attacker can make in a row
+     */
+    public static final int DEFAULT_DEPTH = 16;
+    
+    /**
+     * The default number of positions we can visit before giving up
+     */
+    public static final int DEFAULT_NODE_LIMIT = 20000;
+    
+    /**
+     * The value returned when no forced win is found
+     */
+    public static final int NONE = -1;
+    
+    //the number of threats the attacker can make in a row
+    private final int depth;
+    
+    //the number of positions we can visit
+    private final int nodeLimit;
+    
+    //the counts of each line, kept up to date as threats are made and blocked
+    private ThreatEvaluator threats;
+    
+    //the threats for each depth of the search, reused so nothing is allocated while searching
+    private int[][] candidates;
+    
+    //used to list each location once, a location is listed if its mark is the current mark
+    private int[] marks;
+    private int mark;
+    
+    //the number of positions visited
+    private int nodes;
+    
+    /**
+     * Create a threat search with the default limits
+     */
+    public ThreatSearch()
+    {
+        this(DEFAULT_DEPTH, DEFAULT_NODE_LIMIT);
+    }
+    
+    /**
+     * Create a threat search
+     * @param depth The number of threats the attacker can make in a row
+     * @param nodeLimit The number of positions we can visit before giving up
+     */
+    public ThreatSearch(final int depth, final int nodeLimit)
+    {
+        this.depth = depth;
+        this.nodeLimit = nodeLimit;
+    }
+    
+    /**
+     * Get the number of positions visited during the last search
+     * @return The number of positions visited
+     */
+    public int getNodes()
+    {
+        return this.nodes;
+    }
+    
+    /**
+     * Look for a forced win
+     * @param board The board we are playing on, it will not be modified
+     * @param key The key of the attacker, the player to move
+     * @param opponentKey The key of the defender
+     * @return The index (row * cols + col) of the first move of the forced win, NONE if no forced win was found
+     */
+    public int findWin(final Board board, final int key, final int opponentKey)
+    {
+        //we only need to allocate these again if the dimensions changed
+        if (threats == null || !threats.supports(board))
+        {
+            this.threats = new ThreatEvaluator(board.getCols(), board.getRows(), board.getMatchCount());
+            this.candidates = new int[depth + 1][board.getCols() * board.getRows()];
+            this.marks = new int[board.getCols() * board.getRows()];
+            this.mark = 0;
+        }
+        
+        threats.reset(board);
+        
+        this.nodes = 0;
+        
+        return attack(depth, key, opponentKey);
+    }
+    
+    /**
+     * Look for a forced win for the attacker, who is to move
+     * @param remaining The number of threats the attacker can still make
+     * @param key The key of the attacker
+     * @param opponentKey The key of the defender
+     * @return The index of the winning move, NONE if no forced win was found
+     */
+    private int attack(final int remaining, final int key, final int opponentKey)
+    {
+        this.nodes++;
+        
+        //if the attacker can complete a match we are done
+        final int win = findEmpty(key, opponentKey, threats.getMatchCount() - 1, NONE);
+        
+        if (win != NONE)
+            return win;
+        
+        //if the defender can complete a match the attacker has to block, that isn't a threat
+        if (threats.hasFour(opponentKey))
+            return NONE;
+        
+        if (remaining == 0 || nodes >= nodeLimit)
+            return NONE;
+        
+        //every location that leaves a line one key away from a match
+        final int[] buffer = candidates[remaining];
+        final int count = listEmpty(key, opponentKey, threats.getMatchCount() - 2, buffer);
+        
+        for (int i = 0; i < count; i++)
+        {
+            final int move = buffer[i];
+            
+            threats.place(move, key);
+            
+            final boolean result = defend(remaining, key, opponentKey);
+            
+            threats.remove(move);
+            
+            if (result)
+                return move;
+            
+            if (nodes >= nodeLimit)
+                break;
+        }
+        
+        return NONE;
+    }
+    
+    /**
+     * The defender has to block the threat the attacker made
+     * @param remaining The number of threats the attacker can still make, including the one just made
+     * @param key The key of the attacker
+     * @param opponentKey The key of the defender
+     * @return true if the attacker wins whatever the defender does, false otherwise
+     */
+    private boolean defend(final int remaining, final int key, final int opponentKey)
+    {
+        //the locations that complete a match for the attacker
+        final int block = findEmpty(key, opponentKey, threats.getMatchCount() - 1, NONE);
+        
+        //the defender has no four so can't win first, and can only block one location
+        if (findEmpty(key, opponentKey, threats.getMatchCount() - 1, block) != NONE)
+            return true;
+        
+        threats.place(block, opponentKey);
+        
+        final boolean result = (attack(remaining - 1, key, opponentKey) != NONE);
+        
+        threats.remove(block);
+        
+        return result;
+    }
+    
+    /**
+     * Find an empty location in a line where the player has the number of keys and the opponent has none
+     * @param key The key of the player
+     * @param opponentKey The key of the opponent
+     * @param count The number of keys of the player in the line
+     * @param exclude The index of a location to skip, NONE if none
+     * @return The index of the first empty location found, NONE if there are none
+     */
+    private int findEmpty(final int key, final int opponentKey, final int count, final int exclude)
+    {
+        //no need to check each line if there are none
+        if (threats.getTotal(key, count) == 0)
+            return NONE;
+        
+        final int[][] lines = threats.getLines();
+        
+        for (int line = 0; line < lines.length; line++)
+        {
+            if (threats.getCount(line, key) != count || threats.getCount(line, opponentKey) != 0)
+                continue;
+            
+            for (int i = 0; i < lines[line].length; i++)
+            {
+                final int index = lines[line][i];
+                
+                if (threats.getKey(index) == Board.KEY_EMPTY && index != exclude)
+                    return index;
+            }
+        }
+        
+        return NONE;
+    }
+    
+    /**
+     * List the empty locations in every line where the player has the number of keys and the opponent has none
+     * @param key The key of the player
+     * @param opponentKey The key of the opponent
+     * @param count The number of keys of the player in the line
+     * @param buffer Array to store the locations
+     * @return The number of locations listed, each location is only listed once
+     */
+    private int listEmpty(final int key, final int opponentKey, final int count, final int[] buffer)
+    {
+        //no need to check each line if there are none
+        if (count < 1 || threats.getTotal(key, count) == 0)
+            return 0;
+        
+        //a new mark so locations listed by a previous call can be listed again
+        this.mark++;
+        
+        final int[][] lines = threats.getLines();
+        
+        int total = 0;
+        
+        for (int line = 0; line < lines.length; line++)
+        {
+            if (threats.getCount(line, key) != count || threats.getCount(line, opponentKey) != 0)
+                continue;
+            
+            for (int i = 0; i < lines[line].length; i++)
+            {
+                final int index = lines[line][i];
+                
+                if (threats.getKey(index) == Board.KEY_EMPTY && marks[index] != mark)
+                {
+                    this.marks[index] = mark;
+                    buffer[total++] = index;
+                }
+            }
+        }
+        
+        return total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.gamesbykevin.tictactoe.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size table of positions that have already been searched, keyed by zobrist hash.<br>
+ * Each entry is packed in a single long containing the score, depth, bound type and best move.
+ * The table can be shared by searches on different threads without locking,
+ * the hash is stored xor'd with the entry so an entry torn by two threads writing at once is never matched.
+ * @author ABRAHAM
+ */
+public final class TranspositionTable
+{
+    /**
+     * The default number of entries in the table (must be a power of 2)
+     */
+    public static final int DEFAULT_SIZE = 1 << 16;
+    
+    /**
+     * The score is exact
+     */
+    public static final int BOUND_EXACT = 0;
+    
+    /**
+     * The score is at least the stored score
+     */
+    public static final int BOUND_LOWER = 1;
+    
+    /**
+     * The score is at most the stored score
+     */
+    public static final int BOUND_UPPER = 2;
+    
+    /**
+     * The value returned when a position is not in the table
+     */
+    public static final long NONE = 0;
+    
+    //where each field is stored in an entry
+    private static final int SHIFT_DEPTH = 32;
+    private static final int SHIFT_BOUND = 40;
+    private static final int SHIFT_MOVE = 42;
+    private static final int SHIFT_GENERATION = 58;
+    
+    //the size of each field in an entry
+    private static final long MASK_DEPTH = 0xFF;
+    private static final long MASK_BOUND = 0x3;
+    private static final long MASK_MOVE = 0xFFFF;
+    private static final long MASK_GENERATION = 0x1F;
+    
+    //every stored entry has this bit set so it is never NONE
+    private static final long VALID = 1L << 63;
+    
+    //the hash of the position stored in each entry, xor'd with the entry
+    private final AtomicLongArray hashes;
+    
+    //the packed data of each entry
+    private final AtomicLongArray entries;
+    
+    //used to find the index of a hash
+    private final int mask;
+    
+    //the current search, entries from older searches are replaced first
+    private volatile int generation;
+    
+    /**
+     * Create a table with the default size
+     */
+    public TranspositionTable()
+    {
+        this(DEFAULT_SIZE);
+    }
+    
+    /**
+     * Create a table
+     * @param size The number of entries (must be a power of 2)
+     */
+    public TranspositionTable(final int size)
+    {
+        if (Integer.bitCount(size) != 1)
+            throw new IllegalArgumentException("Size must be a power of 2: " + size);
+        
+        this.hashes = new AtomicLongArray(size);
+        this.entries = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Remove every entry from the table
+     */
+    public void clear()
+    {
+        for (int i = 0; i < entries.length(); i++)
+        {
+            this.entries.set(i, NONE);
+            this.hashes.set(i, 0);
+        }
+    }
+    
+    /**
+     * Start a new search, so the entries from previous searches age
+     */
+    public void newSearch()
+    {
+        this.generation = (int)((generation + 1) & MASK_GENERATION);
+    }
+    
+    /**
+     * Get the index of the hash in the table
+     * @param hash The zobrist hash of the position
+     * @return The index of the entry
+     */
+    private int getIndex(final long hash)
+    {
+        return (int)(hash ^ (hash >>> 32)) & mask;
+    }
+    
+    /**
+     * Look up a position
+     * @param hash The zobrist hash of the position
+     * @return The entry for the position, NONE if not found
+     */
+    public long probe(final long hash)
+    {
+        final int index = getIndex(hash);
+        
+        final long entry = entries.get(index);
+        
+        //if another thread changed the entry, the hash won't match
+        if (entry == NONE || (hashes.get(index) ^ entry) != hash)
+            return NONE;
+        
+        return entry;
+    }
+    
+    /**
+     * Store a position.<br>
+     * An existing entry is only replaced if it is for the same position,
+     * was stored during an older search, or was searched to a lower depth.
+     * @param hash The zobrist hash of the position
+     * @param score The score of the position
+     * @param depth The depth the position was searched to
+     * @param bound The bound type of the score
+     * @param move The index of the best location, -1 if there is none
+     */
+    public void store(final long hash, final int score, final int depth, final int bound, final int move)
+    {
+        final int index = getIndex(hash);
+        
+        final long existing = entries.get(index);
+        
+        if (existing != NONE && (hashes.get(index) ^ existing) != hash && getGeneration(existing) == generation && getDepth(existing) > depth)
+            return;
+        
+        final long entry = VALID
+            | ((long)generation << SHIFT_GENERATION)
+            | (((long)(move + 1) & MASK_MOVE) << SHIFT_MOVE)
+            | (((long)bound & MASK_BOUND) << SHIFT_BOUND)
+            | (((long)depth & MASK_DEPTH) << SHIFT_DEPTH)
+            | ((long)score & 0xFFFFFFFFL);
+        
+        this.hashes.set(index, hash ^ entry);
+        this.entries.set(index, entry);
+    }
+    
+    /**
+     * Get the score of the entry
+     * @param entry The entry
+     * @return The stored score
+     */
+    public static int getScore(final long entry)
+    {
+        return (int)entry;
+    }
+    
+    /**
+     * Get the depth of the entry
+     * @param entry The entry
+     * @return The depth the position was searched to
+     */
+    public static int getDepth(final long entry)
+    {
+        return (int)((entry >>> SHIFT_DEPTH) & MASK_DEPTH);
+    }
+    
+    /**
+     * Get the bound type of the entry
+     * @param entry The entry
+     * @return BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public static int getBound(final long entry)
+    {
+        return (int)((entry >>> SHIFT_BOUND) & MASK_BOUND);
+    }
+    
+    /**
+     * Get the best move of the entry
+     * @param entry The entry
+     * @return The index of the best location, -1 if there is none
+     */
+    public static int getMove(final long entry)
+    {
+        return (int)((entry >>> SHIFT_MOVE) & MASK_MOVE) - 1;
+    }
+    
+    /**
+     * Get the search the entry was stored in
+     * @param entry The entry
+     * @return The generation of the entry
+     */
+    private static int getGeneration(final long entry)
+    {
+        return (int)((entry >>> SHIFT_GENERATION) & MASK_GENERATION);
+    }
+}
\ No newline at end of file
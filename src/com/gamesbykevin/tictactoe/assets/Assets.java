@@ -1,18 +1,35 @@
 package com.gamesbykevin.tictactoe.assets;
 
+import android.content.res.Resources;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.media.MediaPlayer;
 
+import com.gamesbykevin.tictactoe.R;
+
 import java.util.HashMap;
 
 /**
- * This class will contain our game assets
+ * This class will contain our game assets.<br>
+ * Every image is packed into one atlas, and each image is drawn from its region of the atlas.
  * @author ABRAHAM
  */
 public class Assets
 {
-    //hashmap of images
-    private static HashMap<ImageKey, Bitmap> Images = new HashMap<ImageKey, Bitmap>();
+    //every image in one bitmap
+    private static Bitmap Atlas;
+    
+    //the region of each image in the atlas
+    private static HashMap<ImageKey, Rect> Regions = new HashMap<ImageKey, Rect>();
+    
+    //the dimensions of each image before it was decoded smaller, the size it is drawn in the game
+    private static HashMap<ImageKey, Rect> Sizes = new HashMap<ImageKey, Rect>();
+    
+    //where an image is drawn, reused so nothing is allocated while drawing
+    private static final Rect Destination = new Rect();
     
     //hashmap of audio
     private static HashMap<AudioKey, MediaPlayer> Audio = new HashMap<AudioKey, MediaPlayer>();
@@ -22,15 +39,28 @@ public class Assets
      */
     public enum ImageKey
     {
-        Player_X, Player_O, 
-        Button_NewGame_1_Player, 
-        Button_NewGame_2_Player, 
-        Button_MoreGames, 
-        Button_ExitGame, 
-        Button_ResumeGame, 
-        Button_Instructions,
-        Button_RateGame, 
-        Title
+        Player_X(R.drawable.x), Player_O(R.drawable.o), 
+        Button_NewGame_1_Player(R.drawable.newgame1player), 
+        Button_NewGame_2_Player(R.drawable.newgame2player), 
+        Button_MoreGames(R.drawable.moregames), 
+        Button_ExitGame(R.drawable.exitgame), 
+        Button_ResumeGame(R.drawable.resumegame), 
+        Button_Instructions(R.drawable.instructions),
+        Button_RateGame(R.drawable.rategame), 
+        Title(R.drawable.title);
+        
+        //the resource the image is decoded from
+        private final int resourceId;
+        
+        private ImageKey(final int resourceId)
+        {
+            this.resourceId = resourceId;
+        }
+        
+        public int getResourceId()
+        {
+            return this.resourceId;
+        }
     }
     
     /**
@@ -41,21 +71,147 @@ public class Assets
         Move, Win, Lose, Tie
     }
     
-    public static final void assignImage(final ImageKey key, final Bitmap image)
+    /**
+     * Decode every image and pack them into the atlas, if the atlas is already loaded nothing will happen.<br>
+     * The images are decoded at their own size (no density scaling), made smaller by the sample size,
+     * so a small surface doesn't keep pixels it can't show.
+     * @param resources The resources the images are decoded from
+     * @param sampleSize The images are decoded at 1 / sample size of their width and height, a power of 2
+     */
+    public static final void loadImages(final Resources resources, final int sampleSize)
+    {
+        if (Atlas != null)
+            return;
+        
+        final ImageKey[] keys = ImageKey.values();
+        final Bitmap[] images = new Bitmap[keys.length];
+        final int[] widths = new int[keys.length];
+        final int[] heights = new int[keys.length];
+        
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        
+        for (int index = 0; index < keys.length; index++)
+        {
+            //read the full size first, that is the size the image is drawn in the game
+            options.inJustDecodeBounds = true;
+            options.inSampleSize = 1;
+            BitmapFactory.decodeResource(resources, keys[index].getResourceId(), options);
+            getSizes().put(keys[index], new Rect(0, 0, options.outWidth, options.outHeight));
+            
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sampleSize;
+            images[index] = BitmapFactory.decodeResource(resources, keys[index].getResourceId(), options);
+            widths[index] = images[index].getWidth();
+            heights[index] = images[index].getHeight();
+        }
+        
+        final AtlasPacker packer = new AtlasPacker(widths, heights);
+        
+        Atlas = Bitmap.createBitmap(packer.getWidth(), packer.getHeight(), Bitmap.Config.ARGB_8888);
+        
+        final Canvas canvas = new Canvas(Atlas);
+        
+        for (int index = 0; index < keys.length; index++)
+        {
+            final int x = packer.getX(index);
+            final int y = packer.getY(index);
+            
+            canvas.drawBitmap(images[index], x, y, null);
+            getRegions().put(keys[index], new Rect(x, y, x + widths[index], y + heights[index]));
+            
+            //the image is in the atlas now
+            images[index].recycle();
+            images[index] = null;
+        }
+    }
+    
+    /**
+     * Get the bitmap every image is packed into
+     * @return The atlas, null if the images aren't loaded
+     */
+    public static final Bitmap getAtlas()
     {
-        if (getImage(key) == null)
-            getImages().put(key, image);
+        return Atlas;
     }
     
-    public static final void assignAudio(final AudioKey key, final MediaPlayer sound)
+    /**
+     * Get where an image is in the atlas
+     * @param key The image
+     * @return The region of the atlas (pixels)
+     */
+    public static final Rect getRegion(final ImageKey key)
     {
-        if (getAudio().get(key) == null)
-            getAudio().put(key, sound);
+        return getRegions().get(key);
+    }
+    
+    /**
+     * Get the width the image is drawn in the game
+     * @param key The image
+     * @return The width before the image was decoded smaller
+     */
+    public static final int getWidth(final ImageKey key)
+    {
+        return getSizes().get(key).width();
+    }
+    
+    /**
+     * Get the height the image is drawn in the game
+     * @param key The image
+     * @return The height before the image was decoded smaller
+     */
+    public static final int getHeight(final ImageKey key)
+    {
+        return getSizes().get(key).height();
+    }
+    
+    /**
+     * Get where an image is drawn at the size it is drawn in the game
+     * @param key The image
+     * @param x x-coordinate of the image
+     * @param y y-coordinate of the image
+     * @return The bounds of the image
+     */
+    public static final Rect createBounds(final ImageKey key, final int x, final int y)
+    {
+        return new Rect(x, y, x + getWidth(key), y + getHeight(key));
+    }
+    
+    /**
+     * Draw an image from the atlas
+     * @param canvas Object we want to render pixel data to
+     * @param key The image
+     * @param destination Where the image is drawn, the image is scaled to fit
+     * @param paint The paint used to draw the image, can be null
+     */
+    public static final void drawImage(final Canvas canvas, final ImageKey key, final Rect destination, final Paint paint)
+    {
+        if (Atlas != null)
+            canvas.drawBitmap(Atlas, getRegion(key), destination, paint);
+    }
+    
+    /**
+     * Draw an image from the atlas at the size it is drawn in the game
+     * @param canvas Object we want to render pixel data to
+     * @param key The image
+     * @param x x-coordinate of the image
+     * @param y y-coordinate of the image
+     * @param paint The paint used to draw the image, can be null
+     */
+    public static final void drawImage(final Canvas canvas, final ImageKey key, final int x, final int y, final Paint paint)
+    {
+        if (Atlas == null)
+            return;
+        
+        Destination.set(x, y, x + getWidth(key), y + getHeight(key));
+        drawImage(canvas, key, Destination, paint);
     }
     
-    public static final Bitmap getImage(final ImageKey key)
+    public static final void assignAudio(final AudioKey key, final MediaPlayer sound)
     {
-        return getImages().get(key);
+        if (getAudio().get(key) == null)
+            getAudio().put(key, sound);
     }
     
     public static final void playAudio(final AudioKey key)
@@ -71,28 +227,38 @@ public class Assets
         return Audio;
     }
     
-    private static HashMap<ImageKey, Bitmap> getImages()
+    private static HashMap<ImageKey, Rect> getRegions()
     {
-        if (Images == null)
-            Images = new HashMap<ImageKey, Bitmap>();
-        return Images;
+        if (Regions == null)
+            Regions = new HashMap<ImageKey, Rect>();
+        return Regions;
+    }
+    
+    private static HashMap<ImageKey, Rect> getSizes()
+    {
+        if (Sizes == null)
+            Sizes = new HashMap<ImageKey, Rect>();
+        return Sizes;
     }
     
     public static void recycle()
     {
-        if (Images != null)
+        if (Atlas != null)
         {
-            for (Bitmap image : Images.values())
-            {
-                if (image != null)
-                {
-                    image.recycle();
-                    image = null;
-                }
-            }
-            
-            Images.clear();
-            Images = null;
+            Atlas.recycle();
+            Atlas = null;
+        }
+        
+        if (Regions != null)
+        {
+            Regions.clear();
+            Regions = null;
+        }
+        
+        if (Sizes != null)
+        {
+            Sizes.clear();
+            Sizes = null;
         }
         
         if (Audio != null)
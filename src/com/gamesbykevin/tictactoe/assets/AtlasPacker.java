@@ -0,0 +1,194 @@
+package com.gamesbykevin.tictactoe.assets;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Works out where each image goes in an atlas, so every image can be kept in one bitmap.<br>
+ * The tallest images are placed first, each as low as it fits on top of the images already placed (a skyline).
+ * Every atlas width that is a sum of image widths is tried, and the width with the smallest area is kept.
+ * @author ABRAHAM
+ */
+public final class AtlasPacker
+{
+    /**
+     * The widest an atlas can be (pixels)
+     */
+    public static final int MAX_WIDTH = 2048;
+    
+    //the position of each image in the atlas
+    private final int[] x, y;
+    
+    //the dimensions of the atlas
+    private int width, height;
+    
+    /**
+     * Pack the images
+     * @param widths The width of each image (pixels)
+     * @param heights The height of each image (pixels)
+     */
+    public AtlasPacker(final int[] widths, final int[] heights)
+    {
+        if (widths.length != heights.length)
+            throw new IllegalArgumentException("There must be a height for each width");
+        
+        this.x = new int[widths.length];
+        this.y = new int[widths.length];
+        
+        //place the tallest images first, then the widest
+        final Integer[] order = new Integer[widths.length];
+        
+        int widest = 1;
+        
+        for (int index = 0; index < order.length; index++)
+        {
+            order[index] = index;
+            widest = Math.max(widest, widths[index]);
+        }
+        
+        if (widest > MAX_WIDTH)
+            throw new IllegalArgumentException("An image is wider than the atlas can be: " + widest);
+        
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(final Integer index1, final Integer index2)
+            {
+                if (heights[index1] != heights[index2])
+                    return heights[index2] - heights[index1];
+                
+                return widths[index2] - widths[index1];
+            }
+        });
+        
+        //the packing never changes with a width wider than the images placed, so only the sums of widths are tried
+        final boolean[] sums = new boolean[MAX_WIDTH + 1];
+        sums[0] = true;
+        
+        for (int index = 0; index < widths.length; index++)
+        {
+            for (int sum = MAX_WIDTH; sum >= widths[index]; sum--)
+            {
+                if (sums[sum - widths[index]])
+                    sums[sum] = true;
+            }
+        }
+        
+        final int[] placedX = new int[widths.length];
+        final int[] placedY = new int[widths.length];
+        
+        long area = Long.MAX_VALUE;
+        
+        for (int atlasWidth = widest; atlasWidth <= MAX_WIDTH; atlasWidth++)
+        {
+            if (!sums[atlasWidth])
+                continue;
+            
+            final int atlasHeight = place(atlasWidth, widths, heights, order, placedX, placedY);
+            
+            if ((long)atlasWidth * atlasHeight < area)
+            {
+                area = (long)atlasWidth * atlasHeight;
+                
+                this.width = atlasWidth;
+                this.height = atlasHeight;
+                System.arraycopy(placedX, 0, x, 0, x.length);
+                System.arraycopy(placedY, 0, y, 0, y.length);
+            }
+        }
+    }
+    
+    /**
+     * Place each image in an atlas of a fixed width
+     * @param atlasWidth The width of the atlas
+     * @param widths The width of each image
+     * @param heights The height of each image
+     * @param order The order the images are placed in
+     * @param placedX Where the x-coordinate of each image is stored
+     * @param placedY Where the y-coordinate of each image is stored
+     * @return The height of the atlas
+     */
+    private static int place(final int atlasWidth, final int[] widths, final int[] heights, final Integer[] order, final int[] placedX, final int[] placedY)
+    {
+        //the lowest free y-coordinate of each column
+        final int[] skyline = new int[atlasWidth];
+        
+        //an image can start at the left side or at the right side of an image already placed
+        final int[] edges = new int[order.length + 1];
+        int edgeCount = 1;
+        
+        int atlasHeight = 0;
+        
+        for (int index : order)
+        {
+            int bestX = 0, bestY = 0, bestBottom = Integer.MAX_VALUE;
+            
+            for (int edge = 0; edge < edgeCount; edge++)
+            {
+                final int left = edges[edge];
+                
+                if (left + widths[index] > atlasWidth)
+                    continue;
+                
+                //the image has to sit on top of the highest column it covers
+                int top = 0;
+                
+                for (int col = left; col < left + widths[index]; col++)
+                {
+                    top = Math.max(top, skyline[col]);
+                }
+                
+                //keep the lowest fit, and the leftmost of those
+                if (top + heights[index] < bestBottom || (top + heights[index] == bestBottom && left < bestX))
+                {
+                    bestX = left;
+                    bestY = top;
+                    bestBottom = top + heights[index];
+                }
+            }
+            
+            placedX[index] = bestX;
+            placedY[index] = bestY;
+            
+            for (int col = bestX; col < bestX + widths[index]; col++)
+            {
+                skyline[col] = bestBottom;
+            }
+            
+            edges[edgeCount++] = bestX + widths[index];
+            atlasHeight = Math.max(atlasHeight, bestBottom);
+        }
+        
+        return atlasHeight;
+    }
+    
+    /**
+     * Get the x-coordinate of an image in the atlas
+     * @param index The index of the image
+     * @return The x-coordinate (pixels)
+     */
+    public int getX(final int index)
+    {
+        return this.x[index];
+    }
+    
+    /**
+     * Get the y-coordinate of an image in the atlas
+     * @param index The index of the image
+     * @return The y-coordinate (pixels)
+     */
+    public int getY(final int index)
+    {
+        return this.y[index];
+    }
+    
+    public int getWidth()
+    {
+        return this.width;
+    }
+    
+    public int getHeight()
+    {
+        return this.height;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.gamesbykevin.tictactoe.board;
+
+/**
+ * Board storage backed by a 2-dimensional array.<br>
+ * This is the fallback when the board is too large to fit in a bitboard.
+ * @author ABRAHAM
+ */
+public final class ArrayStorage implements BoardStorage
+{
+    /**
+     * The solution key for the board
+     */
+    private final int[][] board;
+    
+    //the number of consecutive matches to identify a winner
+    private final int matchCount;
+    
+    /**
+     * Create a new array storage
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public ArrayStorage(final int cols, final int rows, final int matchCount)
+    {
+        this.board = new int[rows][cols];
+        this.matchCount = matchCount;
+    }
+    
+    @Override
+    public int getCols()
+    {
+        return this.board[0].length;
+    }
+    
+    @Override
+    public int getRows()
+    {
+        return this.board.length;
+    }
+    
+    @Override
+    public int getMatchCount()
+    {
+        return this.matchCount;
+    }
+    
+    @Override
+    public int getKey(final int col, final int row)
+    {
+        return this.board[row][col];
+    }
+    
+    @Override
+    public void setKey(final int col, final int row, final int key)
+    {
+        this.board[row][col] = key;
+    }
+    
+    @Override
+    public void clear()
+    {
+        for (int row = 0; row < getRows(); row++)
+        {
+            for (int col = 0; col < getCols(); col++)
+            {
+                this.board[row][col] = Board.KEY_EMPTY;
+            }
+        }
+    }
+    
+    @Override
+    public boolean hasMatch(final int key)
+    {
+        return BoardHelper.hasMatch(this, key);
+    }
+    
+    @Override
+    public void copy(final BoardStorage storage)
+    {
+        final ArrayStorage source = (ArrayStorage)storage;
+        
+        //copy each row
+        for (int row = 0; row < getRows(); row++)
+        {
+            System.arraycopy(source.board[row], 0, this.board[row], 0, getCols());
+        }
+    }
+    
+    @Override
+    public BoardStorage copy()
+    {
+        final ArrayStorage copy = new ArrayStorage(getCols(), getRows(), getMatchCount());
+        copy.copy(this);
+        return copy;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.gamesbykevin.tictactoe.board;
+
+/**
+ * Board storage where each player has their own bitboard.<br>
+ * Bit (row * cols + col) is set when the player occupies that location,
+ * so a win check is a few mask comparisons and a copy is two words.
+ * @author ABRAHAM
+ */
+public final class BitboardStorage implements BoardStorage
+{
+    /**
+     * The maximum number of locations that fit in a bitboard
+     */
+    public static final int MAX_CELLS = Long.SIZE;
+    
+    //the dimensions of the board
+    private final int cols, rows;
+    
+    //the number of consecutive matches to identify a winner
+    private final int matchCount;
+    
+    //the locations occupied by each player
+    private long bitsX, bitsO;
+    
+    //every possible line of consecutive matches on the board
+    private final long[] lineMasks;
+    
+    /**
+     * Create a new bitboard storage
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public BitboardStorage(final int cols, final int rows, final int matchCount)
+    {
+        if (cols * rows > MAX_CELLS)
+            throw new IllegalArgumentException("Board is too large for a bitboard: " + cols + "x" + rows);
+        
+        this.cols = cols;
+        this.rows = rows;
+        this.matchCount = matchCount;
+        this.lineMasks = createLineMasks(cols, rows, matchCount);
+    }
+    
+    /**
+     * Create a storage that shares the dimensions and line masks of an existing storage
+     * @param storage The storage we are copying
+     */
+    private BitboardStorage(final BitboardStorage storage)
+    {
+        this.cols = storage.cols;
+        this.rows = storage.rows;
+        this.matchCount = storage.matchCount;
+        this.lineMasks = storage.lineMasks;
+        this.bitsX = storage.bitsX;
+        this.bitsO = storage.bitsO;
+    }
+    
+    /**
+     * Create the masks for every horizontal, vertical and diagonal line on the board
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     * @return Array of masks, each containing matchCount consecutive locations
+     */
+    private static long[] createLineMasks(final int cols, final int rows, final int matchCount)
+    {
+        final int[][] lines = BoardHelper.createLines(cols, rows, matchCount);
+        
+        final long[] masks = new long[lines.length];
+        
+        for (int i = 0; i < lines.length; i++)
+        {
+            for (int j = 0; j < lines[i].length; j++)
+            {
+                masks[i] |= 1L << lines[i][j];
+            }
+        }
+        
+        return masks;
+    }
+    
+    /**
+     * Get the bit representing the location
+     * @param col Column
+     * @param row Row
+     * @return The bit for the location
+     */
+    private long getBit(final int col, final int row)
+    {
+        return 1L << ((row * cols) + col);
+    }
+    
+    /**
+     * Get the bitboard for the key
+     * @param key The key (X, O)
+     * @return The locations occupied by the key, 0 if the key is empty
+     */
+    public long getBits(final int key)
+    {
+        switch (key)
+        {
+            case Board.KEY_X:
+                return this.bitsX;
+                
+            case Board.KEY_O:
+                return this.bitsO;
+                
+            default:
+                return 0;
+        }
+    }
+    
+    @Override
+    public int getCols()
+    {
+        return this.cols;
+    }
+    
+    @Override
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    @Override
+    public int getMatchCount()
+    {
+        return this.matchCount;
+    }
+    
+    @Override
+    public int getKey(final int col, final int row)
+    {
+        final long bit = getBit(col, row);
+        
+        if ((bitsX & bit) != 0)
+            return Board.KEY_X;
+        if ((bitsO & bit) != 0)
+            return Board.KEY_O;
+        
+        return Board.KEY_EMPTY;
+    }
+    
+    @Override
+    public void setKey(final int col, final int row, final int key)
+    {
+        final long bit = getBit(col, row);
+        
+        //remove the existing key
+        this.bitsX &= ~bit;
+        this.bitsO &= ~bit;
+        
+        switch (key)
+        {
+            case Board.KEY_X:
+                this.bitsX |= bit;
+                break;
+                
+            case Board.KEY_O:
+                this.bitsO |= bit;
+                break;
+                
+            //nothing else to do for empty
+            case Board.KEY_EMPTY:
+            default:
+                break;
+        }
+    }
+    
+    @Override
+    public void clear()
+    {
+        this.bitsX = 0;
+        this.bitsO = 0;
+    }
+    
+    @Override
+    public boolean hasMatch(final int key)
+    {
+        final long bits = getBits(key);
+        
+        //we can't have a match without any keys
+        if (bits == 0)
+            return false;
+        
+        for (int i = 0; i < lineMasks.length; i++)
+        {
+            if ((bits & lineMasks[i]) == lineMasks[i])
+                return true;
+        }
+        
+        //no match was found
+        return false;
+    }
+    
+    @Override
+    public void copy(final BoardStorage storage)
+    {
+        final BitboardStorage source = (BitboardStorage)storage;
+        
+        this.bitsX = source.bitsX;
+        this.bitsO = source.bitsO;
+    }
+    
+    @Override
+    public BoardStorage copy()
+    {
+        return new BitboardStorage(this);
+    }
+}
\ No newline at end of file
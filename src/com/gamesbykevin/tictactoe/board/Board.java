@@ -1,30 +1,26 @@
 package com.gamesbykevin.tictactoe.board;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-
-import com.gamesbykevin.androidframework.base.Cell;
-import com.gamesbykevin.androidframework.resources.Disposable;
-
-import com.gamesbykevin.tictactoe.panel.GamePanel;
-
 /**
- * A tic-tac-toe board
+ * A tic-tac-toe board.<br>
+ * The board has no dependency on android, it is drawn by the board renderer.
  * @author ABRAHAM
  */
-public final class Board implements Disposable
+public final class Board
 {
     /**
-     * The solution key for the board
+     * The storage containing the keys for the board
      */
-    private int[][] board;
+    private BoardStorage storage;
     
     public static final int KEY_EMPTY = 0;
     public static final int KEY_X = 1;
     public static final int KEY_O = 2;
     
+    /**
+     * No location, returned when a coordinate is not on a cell
+     */
+    public static final int NONE = -1;
+    
     //is the game over
     private boolean gameover = false;
     
@@ -34,56 +30,195 @@ public final class Board implements Disposable
     public static final int DEFAULT_BOARD_DIMENSION = 3;
     
     /**
-     * How thick the line is for a board with a match
+     * The largest number of columns or rows
      */
-    public static final float BOARD_MATCH_THICKNESS = 25f;
+    public static final int MAX_BOARD_DIMENSION = 19;
     
     /**
-     * How thick the outline of the board is
+     * The smallest number of consecutive matches to identify a winner
      */
-    public static final float BOARD_OUTLINE_THICKNESS = 10f;
+    public static final int MIN_MATCH_COUNT = 3;
     
     /**
-     * The dimensions for each cell
+     * The largest number of consecutive matches to identify a winner
+     */
+    public static final int MAX_MATCH_COUNT = 6;
+    
+    /**
+     * The default dimensions for each cell, this is the size the images are drawn for
      */
     public static final int CELL_DIMENSION = 230;
     
     //(x, y) coordinates where the board begins
     private int startX, startY;
     
-    //assign paint parameters here to draw the board etc...
-    private Paint backgroundPaint, matchPaint;
+    //the dimensions for each cell
+    private int cellDimension = CELL_DIMENSION;
     
     //which key won the board
     private int winningKey;
     
-    //the locations identifying the match
-    private Cell matchStart, matchEnd;
+    //the locations identifying the match, -1 if there is no match
+    private int matchStartCol = -1, matchStartRow = -1, matchEndCol = -1, matchEndRow = -1;
+    
+    //the location of the last key placed on the board
+    private int lastCol = -1, lastRow = -1;
+    
+    //counts every change to the keys or the result, so a cached drawing of the board knows when it is out of date
+    private int changes;
+    
+    //the number of empty and occupied locations on the board
+    private int emptyCount, occupiedCount;
+    
+    //the empty locations, and where each location is in the list (-1 if it is occupied)
+    private int[] empties, emptyPositions;
+    
+    //the rotations and reflections of the board
+    private Symmetry symmetry;
+    
+    //the zobrist hash of the keys on the board, for each symmetry
+    private long[] hashes;
+    
+    /**
+     * Empty locations within this distance of an occupied location are candidates for the next move
+     */
+    public static final int CANDIDATE_DISTANCE = 2;
+    
+    //the number of occupied locations within the candidate distance of each location
+    private int[] neighbors;
+    
+    //the candidate locations, and where each location is in the list (-1 if it isn't)
+    private int[] candidates, candidatePositions;
+    
+    //the number of candidate locations
+    private int candidateCount;
     
     public Board()
     {
         //create a new board with the default dimensions
-        createBoard(DEFAULT_BOARD_DIMENSION, DEFAULT_BOARD_DIMENSION);
+        createBoard(DEFAULT_BOARD_DIMENSION, DEFAULT_BOARD_DIMENSION, BoardHelper.MATCH_COUNT);
+    }
+    
+    /**
+     * Create a new board
+     * @param cols Columns
+     * @param rows Rows
+     */
+    public Board(final int cols, final int rows)
+    {
+        this(cols, rows, BoardHelper.MATCH_COUNT);
+    }
+    
+    /**
+     * Create a new board
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public Board(final int cols, final int rows, final int matchCount)
+    {
+        createBoard(cols, rows, matchCount);
+    }
+    
+    /**
+     * Create a copy of an existing board.<br>
+     * The copy can be modified without affecting the original.
+     * @param board The board we want to copy
+     */
+    public Board(final Board board)
+    {
+        copy(board);
     }
     
-    @Override
-    public void dispose()
+    /**
+     * Copy the state of another board into this board.<br>
+     * Nothing is allocated unless the dimensions of the boards are different.
+     * @param board The board we want to copy
+     */
+    public final void copy(final Board board)
     {
-        this.matchEnd = null;
-        this.matchStart = null;
-        this.matchPaint = null;
-        this.backgroundPaint = null;
+        if (getStorage() == null || getCols() != board.getCols() || getRows() != board.getRows() || getMatchCount() != board.getMatchCount())
+        {
+            this.storage = board.getStorage().copy();
+            this.symmetry = board.getSymmetry();
+            this.hashes = board.hashes.clone();
+            this.empties = board.empties.clone();
+            this.emptyPositions = board.emptyPositions.clone();
+            this.neighbors = board.neighbors.clone();
+            this.candidates = board.candidates.clone();
+            this.candidatePositions = board.candidatePositions.clone();
+        }
+        else
+        {
+            getStorage().copy(board.getStorage());
+            System.arraycopy(board.hashes, 0, this.hashes, 0, hashes.length);
+            System.arraycopy(board.empties, 0, this.empties, 0, board.getEmptyCount());
+            System.arraycopy(board.emptyPositions, 0, this.emptyPositions, 0, emptyPositions.length);
+            System.arraycopy(board.neighbors, 0, this.neighbors, 0, neighbors.length);
+            System.arraycopy(board.candidates, 0, this.candidates, 0, board.getCandidateCount());
+            System.arraycopy(board.candidatePositions, 0, this.candidatePositions, 0, candidatePositions.length);
+        }
+        
+        this.candidateCount = board.getCandidateCount();
+        
+        this.gameover = board.hasGameover();
+        this.winningKey = board.getWinningKey();
+        this.lastCol = board.getLastCol();
+        this.lastRow = board.getLastRow();
+        this.emptyCount = board.getEmptyCount();
+        this.occupiedCount = board.getOccupiedCount();
+        this.matchStartCol = board.getMatchStartCol();
+        this.matchStartRow = board.getMatchStartRow();
+        this.matchEndCol = board.getMatchEndCol();
+        this.matchEndRow = board.getMatchEndRow();
+        this.startX = board.getX();
+        this.startY = board.getY();
+        this.cellDimension = board.getCellDimension();
+        this.changes++;
     }
     
     public void setMatchLocation(final int startCol, final int startRow, final int endCol, final int endRow)
     {
-        this.matchStart = new Cell(startCol, startRow);
-        this.matchEnd = new Cell(endCol, endRow);
+        this.matchStartCol = startCol;
+        this.matchStartRow = startRow;
+        this.matchEndCol = endCol;
+        this.matchEndRow = endRow;
+        this.changes++;
+    }
+    
+    /**
+     * Does the board have the location of a match?
+     * @return true = yes, false = no
+     */
+    public boolean hasMatchLocation()
+    {
+        return (matchStartCol >= 0);
+    }
+    
+    public int getMatchStartCol()
+    {
+        return this.matchStartCol;
+    }
+    
+    public int getMatchStartRow()
+    {
+        return this.matchStartRow;
+    }
+    
+    public int getMatchEndCol()
+    {
+        return this.matchEndCol;
+    }
+    
+    public int getMatchEndRow()
+    {
+        return this.matchEndRow;
     }
     
     public void setGameover(final boolean gameover)
     {
         this.gameover = gameover;
+        this.changes++;
     }
     
     public boolean hasGameover()
@@ -131,18 +266,60 @@ public final class Board implements Disposable
      * Create a new board of the specified dimensions
      * @param cols Columns
      * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
      */
-    private void createBoard(final int cols, final int rows)
+    private void createBoard(final int cols, final int rows, final int matchCount)
     {
-        //create new board
-        this.board = new int[rows][cols];
+        if (cols < 1 || cols > MAX_BOARD_DIMENSION || rows < 1 || rows > MAX_BOARD_DIMENSION)
+            throw new IllegalArgumentException("Board dimensions are not supported: " + cols + "x" + rows);
+        
+        //the match has to fit on the board
+        if (matchCount < MIN_MATCH_COUNT || matchCount > MAX_MATCH_COUNT || matchCount > Math.max(cols, rows))
+            throw new IllegalArgumentException("Match count is not supported: " + matchCount + " on " + cols + "x" + rows);
+        
+        //use a bitboard when the board fits, else fall back to an array
+        if (cols * rows <= BitboardStorage.MAX_CELLS)
+        {
+            this.storage = new BitboardStorage(cols, rows, matchCount);
+        }
+        else
+        {
+            this.storage = new ArrayStorage(cols, rows, matchCount);
+        }
+        
+        //create the symmetries and a hash for each
+        this.symmetry = new Symmetry(cols, rows);
+        this.hashes = new long[getSymmetry().getCount()];
+        
+        //the empty locations
+        this.empties = new int[cols * rows];
+        this.emptyPositions = new int[cols * rows];
+        
+        //the candidates for the next move
+        this.neighbors = new int[cols * rows];
+        this.candidates = new int[cols * rows];
+        this.candidatePositions = new int[cols * rows];
         
         //assign the default values
         reset();
-        
-        //position board in the middle
-        setX((GamePanel.WIDTH * .5) - (getBoardWidth() * .5));
-        setY((GamePanel.HEIGHT * .5) - (getBoardHeight() * .6));
+    }
+    
+    /**
+     * Assign the dimensions for each cell
+     * @param cellDimension The width and height of a cell
+     */
+    public void setCellDimension(final int cellDimension)
+    {
+        this.cellDimension = cellDimension;
+    }
+    
+    /**
+     * Get the dimensions for each cell
+     * @return The width and height of a cell
+     */
+    public int getCellDimension()
+    {
+        return this.cellDimension;
     }
     
     /**
@@ -151,7 +328,7 @@ public final class Board implements Disposable
      */
     public int getBoardWidth()
     {
-        return getBoardKey()[0].length * CELL_DIMENSION;
+        return getCols() * getCellDimension();
     }
     
     /**
@@ -160,16 +337,43 @@ public final class Board implements Disposable
      */
     public int getBoardHeight()
     {
-        return getBoardKey().length * CELL_DIMENSION;
+        return getRows() * getCellDimension();
+    }
+    
+    /**
+     * Get the board storage
+     * @return The object containing the keys
+     */
+    public BoardStorage getStorage()
+    {
+        return this.storage;
+    }
+    
+    /**
+     * Get the number of columns
+     * @return The number of columns on the board
+     */
+    public int getCols()
+    {
+        return getStorage().getCols();
+    }
+    
+    /**
+     * Get the number of rows
+     * @return The number of rows on the board
+     */
+    public int getRows()
+    {
+        return getStorage().getRows();
     }
     
     /**
-     * Get the board key
-     * @return The array containing the keys
+     * Get the number of consecutive matches to identify a winner
+     * @return The number of keys in a row needed to win
      */
-    public int[][] getBoardKey()
+    public int getMatchCount()
     {
-        return this.board;
+        return getStorage().getMatchCount();
     }
     
     /**
@@ -188,6 +392,7 @@ public final class Board implements Disposable
     public void setWinningKey(final int winningKey)
     {
         this.winningKey = winningKey;
+        this.changes++;
     }
     
     /**
@@ -198,7 +403,38 @@ public final class Board implements Disposable
      */
     public int getKey(final int col, final int row)
     {
-        return getBoardKey()[row][col];
+        return getStorage().getKey(col, row);
+    }
+    
+    /**
+     * Get the location at the (x,y) coordinate, nothing is changed.<br>
+     * The location is worked out by dividing by the cell dimensions, so the time is the same for any size board.
+     * A coordinate exactly on a line between two cells is not in either cell.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return The index (row * cols + col) of the location, NONE if the coordinate is not on a cell
+     */
+    public int getCell(final float x, final float y)
+    {
+        final float offsetX = x - startX;
+        final float offsetY = y - startY;
+        
+        //west or north of the board
+        if (offsetX <= 0 || offsetY <= 0)
+            return NONE;
+        
+        final int col = (int)offsetX / cellDimension;
+        final int row = (int)offsetY / cellDimension;
+        
+        //east or south of the board
+        if (col >= getCols() || row >= getRows())
+            return NONE;
+        
+        //on the line between two cells
+        if (offsetX == col * cellDimension || offsetY == row * cellDimension)
+            return NONE;
+        
+        return (row * getCols()) + col;
     }
     
     /**
@@ -210,37 +446,21 @@ public final class Board implements Disposable
      */
     public boolean assignKey(final float x, final float y, final int key)
     {
-        for (int col = 0; col < getBoardKey()[0].length; col++)
-        {
-            for (int row = 0; row < getBoardKey().length; row++)
-            {
-                //calculate the corners to check for collision
-                final int x_west = startX + (col * CELL_DIMENSION);
-                final int x_east = x_west + CELL_DIMENSION;
-                final int y_north = startY + (row * CELL_DIMENSION);
-                final int y_south = y_north + CELL_DIMENSION;
-                
-                if (x > x_west && x < x_east && y > y_north && y < y_south)
-                {
-                    switch (getKey(col, row))
-                    {
-                        //we can only make a move where empty
-                        case KEY_EMPTY:
-                            assignKey(col, row, key);
-
-                            //return true since success
-                            return true;
-                            
-                        //return false since occupied
-                        default:
-                            return false;
-                    }
-                }
-            }
-        }
+        final int index = getCell(x, y);
         
         //no collision found return false
-        return false;
+        if (index == NONE)
+            return false;
+        
+        final int col = index % getCols();
+        final int row = index / getCols();
+        
+        //we can only make a move where empty
+        if (getKey(col, row) != KEY_EMPTY)
+            return false;
+        
+        assignKey(col, row, key);
+        return true;
     }
     
     /**
@@ -253,6 +473,122 @@ public final class Board implements Disposable
         return BoardHelper.hasMatch(this, key);
     }
     
+    /**
+     * Does the key at the specified location complete a match?<br>
+     * Only the lines passing through the location are checked.
+     * @param col Column
+     * @param row Row
+     * @return true = yes, false = no
+     */
+    public boolean hasMatch(final int col, final int row)
+    {
+        return BoardHelper.hasMatch(this, col, row);
+    }
+    
+    /**
+     * Get the zobrist hash of the keys on the board.<br>
+     * Two boards with the same keys in the same locations have the same hash.
+     * @return The hash of the current position
+     */
+    public long getHash()
+    {
+        return getHash(Symmetry.IDENTITY);
+    }
+    
+    /**
+     * Get the zobrist hash of the keys on the board after applying a symmetry
+     * @param symmetry The symmetry
+     * @return The hash of the current position rotated/reflected by the symmetry
+     */
+    public long getHash(final int symmetry)
+    {
+        return this.hashes[symmetry];
+    }
+    
+    /**
+     * Get the symmetry that maps the current position to its canonical form.<br>
+     * The canonical form is the symmetry with the lowest hash,
+     * so every position that is a symmetry of this one has the same canonical hash.
+     * @return The symmetry of the canonical form
+     */
+    public int getCanonicalSymmetry()
+    {
+        int canonical = Symmetry.IDENTITY;
+        
+        for (int i = 1; i < hashes.length; i++)
+        {
+            if (hashes[i] < hashes[canonical])
+                canonical = i;
+        }
+        
+        return canonical;
+    }
+    
+    /**
+     * Get the zobrist hash of the canonical form of the current position
+     * @return The hash shared by every rotation/reflection of this position
+     */
+    public long getCanonicalHash()
+    {
+        return getHash(getCanonicalSymmetry());
+    }
+    
+    /**
+     * Get the rotations and reflections of the board
+     * @return The symmetries of the board
+     */
+    public Symmetry getSymmetry()
+    {
+        return this.symmetry;
+    }
+    
+    /**
+     * Get the number of changes made to the board.<br>
+     * The number is different after any key, the winner or the match location changes,
+     * so a drawing of the board only needs to be updated when it is.
+     * @return The number of changes, it can wrap around
+     */
+    public int getChanges()
+    {
+        return this.changes;
+    }
+    
+    /**
+     * Get the number of empty locations
+     * @return The number of locations without a key
+     */
+    public int getEmptyCount()
+    {
+        return this.emptyCount;
+    }
+    
+    /**
+     * Get the number of occupied locations
+     * @return The number of locations with a key
+     */
+    public int getOccupiedCount()
+    {
+        return this.occupiedCount;
+    }
+    
+    /**
+     * Get the column of the last key placed
+     * @return The column of the last key placed, -1 if the board is empty
+     */
+    public int getLastCol()
+    {
+        return this.lastCol;
+    }
+    
+    /**
+     * Get the row of the last key placed
+     * @return The row of the last key placed, -1 if the board is empty
+     */
+    public int getLastRow()
+    {
+        return this.lastRow;
+    }
+    
     /**
      * Assign a value to the specified place on the board
      * @param col Column
@@ -261,7 +597,7 @@ public final class Board implements Disposable
      */
     public void assignKey(final int col, final int row, final int key)
     {
-        getBoardKey()[row][col] = key;
+        setKey(col, row, key);
         
         //if the board is full set game over
         if (BoardHelper.isFull(this))
@@ -269,138 +605,278 @@ public final class Board implements Disposable
     }
     
     /**
-     * Reset all places in the board to empty
+     * Assign a value to the specified place on the board without checking for game over.<br>
+     * This is used to make and undo moves when searching, so the game state is never changed.
+     * @param col Column
+     * @param row Row
+     * @param key The result (O, X, etc...)
      */
-    public void reset()
+    public void setKey(final int col, final int row, final int key)
     {
-        for (int col = 0; col < getBoardKey()[0].length; col++)
+        final int previous = getKey(col, row);
+        
+        //remove the previous key from each hash and add the new one
+        final int index = (row * getCols()) + col;
+        
+        for (int i = 0; i < hashes.length; i++)
         {
-            for (int row = 0; row < getBoardKey().length; row++)
+            final int location = getSymmetry().transform(i, index);
+            this.hashes[i] ^= Zobrist.getKey(location, previous) ^ Zobrist.getKey(location, key);
+        }
+        
+        //keep the empty locations and the empty/occupied counts up to date
+        if (previous == KEY_EMPTY)
+        {
+            if (key != KEY_EMPTY)
             {
-                assignKey(col, row, KEY_EMPTY);
+                removeEmpty(index);
+                this.occupiedCount++;
+            }
+        }
+        else
+        {
+            if (key == KEY_EMPTY)
+            {
+                addEmpty(index);
+                this.occupiedCount--;
             }
         }
         
-        //no winning key
-        setWinningKey(KEY_EMPTY);
+        getStorage().setKey(col, row, key);
+        this.changes++;
         
-        //the game is not over
-        setGameover(false);
+        //keep the candidates for the next move up to date
+        if (previous == KEY_EMPTY)
+        {
+            if (key != KEY_EMPTY)
+            {
+                removeCandidate(index);
+                updateNeighbors(col, row, 1);
+            }
+        }
+        else
+        {
+            if (key == KEY_EMPTY)
+            {
+                updateNeighbors(col, row, -1);
+                
+                if (neighbors[index] > 0)
+                    addCandidate(index);
+            }
+        }
+        
+        //keep track of the last key placed
+        if (key != KEY_EMPTY)
+        {
+            this.lastCol = col;
+            this.lastRow = row;
+        }
     }
     
-    private int getCellCenterX(final int col)
+    /**
+     * Add the location to the empty locations
+     * @param index The index (row * cols + col) of the location
+     */
+    private void addEmpty(final int index)
     {
-        return (startX + (col * CELL_DIMENSION) + (CELL_DIMENSION / 2));
+        this.empties[emptyCount] = index;
+        this.emptyPositions[index] = emptyCount;
+        this.emptyCount++;
     }
     
-    private int getCellCenterY(final int row)
+    /**
+     * Remove the location from the empty locations.<br>
+     * The last empty location takes its place in the list.
+     * @param index The index (row * cols + col) of the location
+     */
+    private void removeEmpty(final int index)
     {
-        return (startY + (row * CELL_DIMENSION) + (CELL_DIMENSION / 2));
+        final int position = emptyPositions[index];
+        
+        this.emptyCount--;
+        
+        final int last = empties[emptyCount];
+        this.empties[position] = last;
+        this.emptyPositions[last] = position;
+        this.emptyPositions[index] = -1;
     }
     
     /**
-     * Draw the tic-tac-toe board
-     * @param canvas
-     * @param imageX
-     * @param imageO 
+     * Get an empty location.<br>
+     * The order of the list changes as keys are assigned and cleared.
+     * @param i The position in the list of empty locations, from 0 to the empty count - 1
+     * @return The index (row * cols + col) of the empty location
      */
-    public void draw(final Canvas canvas, final Bitmap imageX, final Bitmap imageO)
+    public int getEmpty(final int i)
     {
-        //draw the background
-        drawBackground(canvas);
+        return this.empties[i];
+    }
+    
+    /**
+     * Update the number of occupied locations near each location within the candidate distance
+     * @param col Column of the location that changed
+     * @param row Row of the location that changed
+     * @param change 1 if the location is now occupied, -1 if it is now empty
+     */
+    private void updateNeighbors(final int col, final int row, final int change)
+    {
+        final int cols = getCols();
         
-        for (int col = 0; col < getBoardKey()[0].length; col++)
+        for (int checkRow = Math.max(0, row - CANDIDATE_DISTANCE); checkRow <= Math.min(getRows() - 1, row + CANDIDATE_DISTANCE); checkRow++)
         {
-            final int x = getCellCenterX(col);
-            
-            for (int row = 0; row < getBoardKey().length; row++)
+            for (int checkCol = Math.max(0, col - CANDIDATE_DISTANCE); checkCol <= Math.min(cols - 1, col + CANDIDATE_DISTANCE); checkCol++)
             {
-                final int y = (getCellCenterY(row));
+                //the location itself doesn't count
+                if (checkCol == col && checkRow == row)
+                    continue;
+                
+                final int index = (checkRow * cols) + checkCol;
+                
+                this.neighbors[index] += change;
                 
-                switch (getKey(col, row))
+                if (change > 0)
                 {
-                    case KEY_X:
-                        canvas.drawBitmap(imageX, x - (imageX.getWidth() / 2), y - (imageX.getHeight() / 2), null);
-                        break;
-                        
-                    case KEY_O:
-                        canvas.drawBitmap(imageO, x - (imageO.getWidth() / 2), y - (imageO.getHeight() / 2), null);
-                        break;
-                        
-                    //do nothing here
-                    case KEY_EMPTY:
-                    default:
-                        break;
+                    //an empty location is a candidate once there is an occupied location nearby
+                    if (neighbors[index] == 1 && getKey(checkCol, checkRow) == KEY_EMPTY)
+                        addCandidate(index);
+                }
+                else
+                {
+                    //and is no longer a candidate once there are none
+                    if (neighbors[index] == 0)
+                        removeCandidate(index);
                 }
             }
         }
+    }
+    
+    /**
+     * Add the location to the candidates, if it isn't already
+     * @param index The index (row * cols + col) of the location
+     */
+    private void addCandidate(final int index)
+    {
+        if (candidatePositions[index] >= 0)
+            return;
         
-        //if the game is over, draw the result
-        if (hasGameover())
-            drawGameover(canvas);
+        this.candidates[candidateCount] = index;
+        this.candidatePositions[index] = candidateCount;
+        this.candidateCount++;
     }
     
-    private void drawGameover(final Canvas canvas)
+    /**
+     * Remove the location from the candidates, if it is one.<br>
+     * The last candidate takes its place in the list.
+     * @param index The index (row * cols + col) of the location
+     */
+    private void removeCandidate(final int index)
     {
-        switch (getWinningKey())
-        {
-            //draw the line to highlight the winner
-            case KEY_X:
-            case KEY_O:
-                if (matchStart != null && matchEnd != null)
-                {
-                    //create paint object if not exists
-                    if (matchPaint == null)
-                    {
-                        this.matchPaint = new Paint();
-                        this.matchPaint.setColor(Color.BLUE);
-                        this.matchPaint.setStrokeWidth(BOARD_MATCH_THICKNESS);
-                    }
-
-                    //calculate coordinates
-                    final int x1 = getCellCenterX((int)matchStart.getCol());
-                    final int y1 = getCellCenterY((int)matchStart.getRow());
-                    final int x2 = getCellCenterX((int)matchEnd.getCol());
-                    final int y2 = getCellCenterY((int)matchEnd.getRow());
-
-                    //draw the match line
-                    canvas.drawLine(x1, y1, x2, y2, matchPaint);
-                }
-                
-                break;
-
-            //it was a draw
-            default:
-                break;
-        }
+        final int position = candidatePositions[index];
+        
+        if (position < 0)
+            return;
+        
+        this.candidateCount--;
+        
+        final int last = candidates[candidateCount];
+        this.candidates[position] = last;
+        this.candidatePositions[last] = position;
+        this.candidatePositions[index] = -1;
     }
     
     /**
-     * Draw the background of the board
-     * @param canvas Object we want to render pixel data to
+     * Get the number of candidates for the next move.<br>
+     * A candidate is an empty location within the candidate distance of an occupied location.
+     * @return The number of candidates, 0 if the board is empty
      */
-    private void drawBackground(final Canvas canvas)
+    public int getCandidateCount()
     {
-        //create paint object if it doesn't exist
-        if (this.backgroundPaint == null)
+        return this.candidateCount;
+    }
+    
+    /**
+     * Is the location a candidate for the next move?
+     * @param index The index (row * cols + col) of the location
+     * @return true = yes, false = no
+     */
+    public boolean isCandidate(final int index)
+    {
+        return (candidatePositions[index] >= 0);
+    }
+    
+    /**
+     * Get a candidate for the next move
+     * @param i The position in the list of candidates, from 0 to the candidate count - 1
+     * @return The index (row * cols + col) of the candidate location
+     */
+    public int getCandidate(final int i)
+    {
+        return this.candidates[i];
+    }
+    
+    /**
+     * Reset all places in the board to empty
+     */
+    public void reset()
+    {
+        //clear every key
+        getStorage().clear();
+        this.changes++;
+        
+        //every location is now empty
+        this.emptyCount = getCols() * getRows();
+        this.occupiedCount = 0;
+        
+        for (int i = 0; i < emptyCount; i++)
         {
-            this.backgroundPaint = new Paint();
-            this.backgroundPaint.setColor(Color.WHITE);
-            this.backgroundPaint.setStrokeWidth(BOARD_OUTLINE_THICKNESS);
+            this.empties[i] = i;
+            this.emptyPositions[i] = i;
         }
-        else
+        
+        //the hash of an empty board
+        for (int i = 0; i < hashes.length; i++)
         {
-            for (int col = 1; col < getBoardKey()[0].length; col++)
-            {
-                final int x = startX + (col * CELL_DIMENSION);
-                canvas.drawLine(x, startY, x, startY + getBoardHeight(), this.backgroundPaint);
-            }
-
-            for (int row = 1; row < getBoardKey().length; row++)
-            {
-                final int y = startY + (row * CELL_DIMENSION);
-                canvas.drawLine(startX, y, startX + getBoardWidth(), y, this.backgroundPaint);
-            }
+            this.hashes[i] = 0;
         }
+        
+        //no key has been placed
+        this.lastCol = -1;
+        this.lastRow = -1;
+        
+        //so there are no candidates
+        for (int i = 0; i < neighbors.length; i++)
+        {
+            this.neighbors[i] = 0;
+            this.candidatePositions[i] = -1;
+        }
+        
+        this.candidateCount = 0;
+        
+        //no winning key
+        setWinningKey(KEY_EMPTY);
+        setMatchLocation(-1, -1, -1, -1);
+        
+        //the game is not over
+        setGameover(false);
+    }
+    
+    /**
+     * Get the x-coordinate at the center of the column
+     * @param col Column
+     * @return The x-coordinate of the center of the cell
+     */
+    public int getCellCenterX(final int col)
+    {
+        return (startX + (col * cellDimension) + (cellDimension / 2));
+    }
+    
+    /**
+     * Get the y-coordinate at the center of the row
+     * @param row Row
+     * @return The y-coordinate of the center of the cell
+     */
+    public int getCellCenterY(final int row)
+    {
+        return (startY + (row * cellDimension) + (cellDimension / 2));
     }
 }
\ No newline at end of file
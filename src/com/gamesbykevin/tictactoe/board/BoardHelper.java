@@ -7,29 +7,34 @@ package com.gamesbykevin.tictactoe.board;
 public final class BoardHelper 
 {
     /**
-     * The number of consecutive matches to identify a winner
+     * The default number of consecutive matches to identify a winner
      */
     public static final int MATCH_COUNT = 3;
     
+    /**
+     * The directions we check for a match (horizontal, vertical, diagonal south, diagonal north)
+     */
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+    
     /**
      * Check if we have a horizontal match on the board at the specified location
-     * @param board The game board
+     * @param storage The board storage
      * @param startCol Start column
      * @param startRow Start Row
      * @param key The matching key
      * @return true if the key matches in consecutive session, false otherwise
      */
-    protected static boolean hasMatchHorizontal(final Board board, final int startCol, final int startRow, final int key)
+    protected static boolean hasMatchHorizontal(final BoardStorage storage, final int startCol, final int startRow, final int key)
     {
         //check horizontal match
-        for (int col = startCol; col < startCol + MATCH_COUNT; col++)
+        for (int col = startCol; col < startCol + storage.getMatchCount(); col++)
         {
             //if we are out of bounds we don't meet the match criteria
-            if (col >= board.getBoardKey()[0].length)
+            if (col >= storage.getCols())
                 return false;
             
             //if the key does not match, return false
-            if (board.getKey(col, startRow) != key)
+            if (storage.getKey(col, startRow) != key)
                 return false;
         }
         
@@ -39,23 +44,23 @@ public final class BoardHelper
     
     /**
      * Check if we have a vertical match on the board at the specified location
-     * @param board The game board
+     * @param storage The board storage
      * @param startCol Start column
      * @param startRow Start Row
      * @param key The matching key
      * @return true if the key matches in consecutive session, false otherwise
      */
-    protected static boolean hasMatchVertical(final Board board, final int startCol, final int startRow, final int key)
+    protected static boolean hasMatchVertical(final BoardStorage storage, final int startCol, final int startRow, final int key)
     {
         //check vertical match
-        for (int row = startRow; row < startRow + MATCH_COUNT; row++)
+        for (int row = startRow; row < startRow + storage.getMatchCount(); row++)
         {
             //if we are out of bounds we don't meet the match criteria
-            if (row >= board.getBoardKey().length)
+            if (row >= storage.getRows())
                 return false;
             
             //if the key does not match, return false
-            if (board.getKey(startCol, row) != key)
+            if (storage.getKey(startCol, row) != key)
                 return false;
         }
         
@@ -65,28 +70,28 @@ public final class BoardHelper
     
     /**
      * Check if we have a diagonal match on the board at the specified location
-     * @param board The game board
+     * @param storage The board storage
      * @param startCol Start column
      * @param startRow Start Row
      * @param key The matching key
      * @return true if the key matches in consecutive session, false otherwise
      */
-    protected static boolean hasMatchDiagonalSouth(final Board board, final int startCol, final int startRow, final int key)
+    protected static boolean hasMatchDiagonalSouth(final BoardStorage storage, final int startCol, final int startRow, final int key)
     {
         int col = startCol;
 
-        for (int row = startRow; row < startRow + MATCH_COUNT; row++)
+        for (int row = startRow; row < startRow + storage.getMatchCount(); row++)
         {
             //if we are out of bounds we don't meet the match criteria
-            if (col >= board.getBoardKey()[0].length)
+            if (col >= storage.getCols())
                 return false;
 
             //if we are out of bounds we don't meet the match criteria
-            if (row >= board.getBoardKey().length)
+            if (row >= storage.getRows())
                 return false;
 
             //if the key does not match, return false
-            if (board.getKey(col, row) != key)
+            if (storage.getKey(col, row) != key)
                 return false;
             
             //increase the column
@@ -99,20 +104,20 @@ public final class BoardHelper
     
     /**
      * Check if we have a diagonal match on the board at the specified location
-     * @param board The game board
+     * @param storage The board storage
      * @param startCol Start column
      * @param startRow Start Row
      * @param key The matching key
      * @return true if the key matches in consecutive session, false otherwise
      */
-    protected static boolean hasMatchDiagonalNorth(final Board board, final int startCol, final int startRow, final int key)
+    protected static boolean hasMatchDiagonalNorth(final BoardStorage storage, final int startCol, final int startRow, final int key)
     {
         int col = startCol;
 
-        for (int row = startRow; row > startRow - MATCH_COUNT; row--)
+        for (int row = startRow; row > startRow - storage.getMatchCount(); row--)
         {
             //if we are out of bounds we don't meet the match criteria
-            if (col >= board.getBoardKey()[0].length)
+            if (col >= storage.getCols())
                 return false;
             
             //if we are out of bounds we don't meet the match criteria
@@ -120,7 +125,7 @@ public final class BoardHelper
                 return false;
 
             //if the key does not match, return false
-            if (board.getKey(col, row) != key)
+            if (storage.getKey(col, row) != key)
                 return false;
             
             //increase the column
@@ -138,20 +143,31 @@ public final class BoardHelper
      * @return true = yes, false = no
      */
     protected static boolean hasMatch(final Board board, final int key)
+    {
+        return board.getStorage().hasMatch(key);
+    }
+    
+    /**
+     * Do we have a match? Every position will be scanned
+     * @param storage The board storage
+     * @param key The key we want to check for a match
+     * @return true = yes, false = no
+     */
+    protected static boolean hasMatch(final BoardStorage storage, final int key)
     {
         //check every position
-        for (int col = 0; col < board.getBoardKey()[0].length; col++)
+        for (int col = 0; col < storage.getCols(); col++)
         {
-            for (int row = 0; row < board.getBoardKey().length; row++)
+            for (int row = 0; row < storage.getRows(); row++)
             {
                 //if any of these match, we have a match
-                if (hasMatchHorizontal(board, col, row, key))
+                if (hasMatchHorizontal(storage, col, row, key))
                     return true;
-                if (hasMatchVertical(board, col, row, key))
+                if (hasMatchVertical(storage, col, row, key))
                     return true;
-                if (hasMatchDiagonalSouth(board, col, row, key))
+                if (hasMatchDiagonalSouth(storage, col, row, key))
                     return true;
-                if (hasMatchDiagonalNorth(board, col, row, key))
+                if (hasMatchDiagonalNorth(storage, col, row, key))
                     return true;
             }
         }
@@ -160,6 +176,131 @@ public final class BoardHelper
         return false;
     }
     
+    /**
+     * Count the consecutive keys heading away from the location in a single direction.<br>
+     * The location itself is not included in the count.
+     * @param storage The board storage
+     * @param col Column of the location
+     * @param row Row of the location
+     * @param dCol Column direction
+     * @param dRow Row direction
+     * @param key The matching key
+     * @return The number of consecutive keys, no more than the match count - 1
+     */
+    private static int countConsecutive(final BoardStorage storage, final int col, final int row, final int dCol, final int dRow, final int key)
+    {
+        final int limit = storage.getMatchCount() - 1;
+        
+        int count = 0;
+        
+        int checkCol = col + dCol;
+        int checkRow = row + dRow;
+        
+        while (count < limit)
+        {
+            //if we are out of bounds we are done
+            if (checkCol < 0 || checkCol >= storage.getCols() || checkRow < 0 || checkRow >= storage.getRows())
+                break;
+            
+            //if the key does not match we are done
+            if (storage.getKey(checkCol, checkRow) != key)
+                break;
+            
+            count++;
+            checkCol += dCol;
+            checkRow += dRow;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Check the lines passing through the location for a match.<br>
+     * This only needs to be done for the location of the last key placed.
+     * @param storage The board storage
+     * @param col Column
+     * @param row Row
+     * @param board If not null the start and end point of the match will be marked on this board
+     * @return true if the key at the location is part of a match, false otherwise
+     */
+    private static boolean checkMatch(final BoardStorage storage, final int col, final int row, final Board board)
+    {
+        //if no location was provided there can't be a match
+        if (col < 0 || row < 0)
+            return false;
+        
+        final int matchCount = storage.getMatchCount();
+        final int key = storage.getKey(col, row);
+        
+        //an empty location can't be part of a match
+        if (key == Board.KEY_EMPTY)
+            return false;
+        
+        //check horizontal, vertical, diagonal south, diagonal north
+        for (int direction = 0; direction < DIRECTIONS.length; direction++)
+        {
+            final int dCol = DIRECTIONS[direction][0];
+            final int dRow = DIRECTIONS[direction][1];
+            
+            //count the keys behind and ahead of the location
+            final int behind = countConsecutive(storage, col, row, -dCol, -dRow, key);
+            final int ahead = countConsecutive(storage, col, row, dCol, dRow, key);
+            
+            if (behind + ahead + 1 >= matchCount)
+            {
+                if (board != null)
+                {
+                    final int startCol = col - (dCol * behind);
+                    final int startRow = row - (dRow * behind);
+                    board.setMatchLocation(startCol, startRow, startCol + (dCol * (matchCount - 1)), startRow + (dRow * (matchCount - 1)));
+                }
+                
+                return true;
+            }
+        }
+        
+        //no match was found
+        return false;
+    }
+    
+    /**
+     * Does the key at the location complete a match?
+     * @param board The board we are playing on
+     * @param col Column
+     * @param row Row
+     * @return true = yes, false = no
+     */
+    protected static boolean hasMatch(final Board board, final int col, final int row)
+    {
+        return checkMatch(board.getStorage(), col, row, null);
+    }
+    
+    /**
+     * Does the key at the location complete a match?<br>
+     * This lets a storage be played on without the hashes and counts kept by a board.
+     * @param storage The board storage
+     * @param col Column
+     * @param row Row
+     * @return true = yes, false = no
+     */
+    public static boolean hasMatch(final BoardStorage storage, final int col, final int row)
+    {
+        return checkMatch(storage, col, row, null);
+    }
+    
+    /**
+     * Mark the start and end point of the match through the location.<br>
+     * If there is no match nothing will happen.
+     * @param board The board we are playing on
+     * @param col Column of the last key placed
+     * @param row Row of the last key placed
+     * @return true if there was a match, false otherwise
+     */
+    public static boolean markMatch(final Board board, final int col, final int row)
+    {
+        return checkMatch(board.getStorage(), col, row, board);
+    }
+    
     /**
      * Mark the start and end point of the match.<br>
      * If there is no match nothing will happen.
@@ -168,33 +309,36 @@ public final class BoardHelper
      */
     public static void markMatch(final Board board, final int key)
     {
+        final BoardStorage storage = board.getStorage();
+        final int length = storage.getMatchCount() - 1;
+        
         //check every position
-        for (int col = 0; col < board.getBoardKey()[0].length; col++)
+        for (int col = 0; col < storage.getCols(); col++)
         {
-            for (int row = 0; row < board.getBoardKey().length; row++)
+            for (int row = 0; row < storage.getRows(); row++)
             {
                 //if any of these match, mark our match
-                if (hasMatchHorizontal(board, col, row, key))
+                if (hasMatchHorizontal(storage, col, row, key))
                 {
-                    board.setMatchLocation(col, row, col + MATCH_COUNT - 1, row);
+                    board.setMatchLocation(col, row, col + length, row);
                     return;
                 }
                 
-                if (hasMatchVertical(board, col, row, key))
+                if (hasMatchVertical(storage, col, row, key))
                 {
-                    board.setMatchLocation(col, row, col, row + MATCH_COUNT - 1);
+                    board.setMatchLocation(col, row, col, row + length);
                     return;
                 }
                 
-                if (hasMatchDiagonalSouth(board, col, row, key))
+                if (hasMatchDiagonalSouth(storage, col, row, key))
                 {
-                    board.setMatchLocation(col, row, col + MATCH_COUNT - 1, row + MATCH_COUNT - 1);
+                    board.setMatchLocation(col, row, col + length, row + length);
                     return;
                 }
                 
-                if (hasMatchDiagonalNorth(board, col, row, key))
+                if (hasMatchDiagonalNorth(storage, col, row, key))
                 {
-                    board.setMatchLocation(col, row, col + MATCH_COUNT - 1, row - MATCH_COUNT + 1);
+                    board.setMatchLocation(col, row, col + length, row - length);
                     return;
                 }
             }
@@ -202,23 +346,77 @@ public final class BoardHelper
     }
     
     /**
-     * Is the board full?
-     * @param board The board we are playing on
-     * @return true if there are no empty spaces, false otherwise
+     * Create every horizontal, vertical and diagonal line of consecutive locations on a board.<br>
+     * Each location is identified by its index (row * cols + col).
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive locations in each line
+     * @return Array of lines, each containing the index of matchCount consecutive locations
      */
-    protected static boolean isFull(final Board board)
+    public static int[][] createLines(final int cols, final int rows, final int matchCount)
     {
-        for (int col = 0; col < board.getBoardKey()[0].length; col++)
+        //count the lines first so we know the size of our array
+        final int[][] lines = new int[fillLines(null, cols, rows, matchCount)][];
+        
+        //now populate the lines
+        fillLines(lines, cols, rows, matchCount);
+        
+        return lines;
+    }
+    
+    /**
+     * Populate every line on the board
+     * @param lines Array to store the lines, if null the lines are only counted
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive locations in each line
+     * @return The number of lines on the board
+     */
+    private static int fillLines(final int[][] lines, final int cols, final int rows, final int matchCount)
+    {
+        int index = 0;
+        
+        for (int col = 0; col < cols; col++)
         {
-            for (int row = 0; row < board.getBoardKey().length; row++)
+            for (int row = 0; row < rows; row++)
             {
-                //if there is an empty space return false
-                if (board.getKey(col, row) == Board.KEY_EMPTY)
-                    return false;
+                for (int direction = 0; direction < DIRECTIONS.length; direction++)
+                {
+                    final int dCol = DIRECTIONS[direction][0];
+                    final int dRow = DIRECTIONS[direction][1];
+                    
+                    //the line has to fit on the board
+                    final int endCol = col + (dCol * (matchCount - 1));
+                    final int endRow = row + (dRow * (matchCount - 1));
+                    
+                    if (endCol < 0 || endCol >= cols || endRow < 0 || endRow >= rows)
+                        continue;
+                    
+                    if (lines != null)
+                    {
+                        lines[index] = new int[matchCount];
+                        
+                        for (int i = 0; i < matchCount; i++)
+                        {
+                            lines[index][i] = ((row + (dRow * i)) * cols) + col + (dCol * i);
+                        }
+                    }
+                    
+                    index++;
+                }
             }
         }
         
-        //this board is full
-        return true;
+        return index;
+    }
+    
+    /**
+     * Is the board full?
+     * @param board The board we are playing on
+     * @return true if there are no empty spaces, false otherwise
+     */
+    protected static boolean isFull(final Board board)
+    {
+        return (board.getEmptyCount() == 0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.gamesbykevin.tictactoe.board;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+import com.gamesbykevin.tictactoe.assets.Assets;
+
+/**
+ * Draws a tic-tac-toe board.<br>
+ * The lines, keys and match line are drawn once to an offscreen layer, which is drawn to the screen every frame.
+ * The layer is only updated when the board changes, and a new key is drawn on top of the layer without drawing the rest again.
+ * @author ABRAHAM
+ */
+public final class BoardRenderer implements Disposable
+{
+    /**
+     * How thick the line is for a board with a match
+     */
+    public static final float BOARD_MATCH_THICKNESS = 25f;
+    
+    /**
+     * How thick the outline of the board is
+     */
+    public static final float BOARD_OUTLINE_THICKNESS = 10f;
+    
+    //assign paint parameters here to draw the board etc...
+    private Paint backgroundPaint, matchPaint;
+    
+    //paint used to smooth the images when they are scaled
+    private Paint imagePaint;
+    
+    //where a scaled image is drawn, reused so nothing is allocated while drawing
+    private final Rect destination = new Rect();
+    
+    //the board drawn to an offscreen image, and the canvas used to draw to it
+    private Bitmap layer;
+    private Canvas layerCanvas;
+    
+    //the board, position and cell dimensions the layer was drawn for
+    private Board layerBoard;
+    private int layerX, layerY, layerCellDimension;
+    
+    //the number of changes made to the board when the layer was last updated
+    private int layerChanges;
+    
+    //the key drawn at each location of the layer
+    private int[] layerKeys;
+    
+    //was the result drawn to the layer
+    private boolean layerGameover;
+    
+    public BoardRenderer()
+    {
+        this.backgroundPaint = new Paint();
+        this.backgroundPaint.setColor(Color.WHITE);
+        this.backgroundPaint.setStrokeWidth(BOARD_OUTLINE_THICKNESS);
+        
+        this.matchPaint = new Paint();
+        this.matchPaint.setColor(Color.BLUE);
+        this.matchPaint.setStrokeWidth(BOARD_MATCH_THICKNESS);
+        
+        this.imagePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        this.matchPaint = null;
+        this.backgroundPaint = null;
+        this.imagePaint = null;
+        
+        if (layer != null)
+        {
+            layer.recycle();
+            layer = null;
+        }
+        
+        this.layerCanvas = null;
+        this.layerBoard = null;
+    }
+    
+    /**
+     * Draw the tic-tac-toe board.<br>
+     * The images and lines are scaled when the cells are smaller than the default cell dimensions.
+     * @param canvas Object we want to render pixel data to
+     * @param board The board we want to draw
+     */
+    public void draw(final Canvas canvas, final Board board)
+    {
+        if (layer == null || layerBoard != board || layerX != board.getX() || layerY != board.getY() || layerCellDimension != board.getCellDimension())
+        {
+            //the board was replaced, moved or resized
+            createLayer(board);
+            drawLayer(board);
+        }
+        else if (layerChanges != board.getChanges())
+        {
+            //only draw what changed since the last update
+            updateLayer(board);
+        }
+        
+        canvas.drawBitmap(layer, layerX, layerY, imagePaint);
+    }
+    
+    /**
+     * Create the layer the size of the board, the existing layer is reused if it is the same size
+     * @param board The board we want to draw
+     */
+    private void createLayer(final Board board)
+    {
+        final int width = board.getBoardWidth();
+        final int height = board.getBoardHeight();
+        
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height)
+        {
+            if (layer != null)
+                layer.recycle();
+            
+            this.layer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        
+        //draw to the layer with the coordinates of the board
+        this.layerCanvas = new Canvas(layer);
+        this.layerCanvas.translate(-board.getX(), -board.getY());
+        
+        this.layerBoard = board;
+        this.layerX = board.getX();
+        this.layerY = board.getY();
+        this.layerCellDimension = board.getCellDimension();
+        this.layerKeys = new int[board.getCols() * board.getRows()];
+    }
+    
+    /**
+     * Draw the entire board to the layer
+     * @param board The board we want to draw
+     */
+    private void drawLayer(final Board board)
+    {
+        //the lines are as thick as the cells are large
+        final float scale = (float)board.getCellDimension() / Board.CELL_DIMENSION;
+        this.backgroundPaint.setStrokeWidth(BOARD_OUTLINE_THICKNESS * scale);
+        this.matchPaint.setStrokeWidth(BOARD_MATCH_THICKNESS * scale);
+        
+        //start with an empty layer
+        layer.eraseColor(Color.TRANSPARENT);
+        
+        //draw the background
+        drawBackground(layerCanvas, board);
+        
+        for (int col = 0; col < board.getCols(); col++)
+        {
+            for (int row = 0; row < board.getRows(); row++)
+            {
+                final int key = board.getKey(col, row);
+                
+                drawKey(board, col, row, key, scale);
+                this.layerKeys[(row * board.getCols()) + col] = key;
+            }
+        }
+        
+        //if the game is over, draw the result
+        if (board.hasGameover())
+            drawGameover(layerCanvas, board);
+        
+        this.layerGameover = board.hasGameover();
+        this.layerChanges = board.getChanges();
+    }
+    
+    /**
+     * Draw the keys placed since the layer was last updated.<br>
+     * If a key was removed or the game is no longer over, the entire board is drawn again.
+     * @param board The board we want to draw
+     */
+    private void updateLayer(final Board board)
+    {
+        //a key or result can't be erased from the layer
+        if (layerGameover && !board.hasGameover())
+        {
+            drawLayer(board);
+            return;
+        }
+        
+        final float scale = (float)board.getCellDimension() / Board.CELL_DIMENSION;
+        
+        for (int col = 0; col < board.getCols(); col++)
+        {
+            for (int row = 0; row < board.getRows(); row++)
+            {
+                final int index = (row * board.getCols()) + col;
+                final int key = board.getKey(col, row);
+                
+                if (key == layerKeys[index])
+                    continue;
+                
+                if (layerKeys[index] != Board.KEY_EMPTY)
+                {
+                    drawLayer(board);
+                    return;
+                }
+                
+                drawKey(board, col, row, key, scale);
+                this.layerKeys[index] = key;
+            }
+        }
+        
+        //the result is drawn over the keys
+        if (board.hasGameover() && !layerGameover)
+            drawGameover(layerCanvas, board);
+        
+        this.layerGameover = board.hasGameover();
+        this.layerChanges = board.getChanges();
+    }
+    
+    /**
+     * Draw the image of the key at the location on the layer
+     * @param board The board we want to draw
+     * @param col Column
+     * @param row Row
+     * @param key The key at the location
+     * @param scale How much to scale the image
+     */
+    private void drawKey(final Board board, final int col, final int row, final int key, final float scale)
+    {
+        switch (key)
+        {
+            case Board.KEY_X:
+                drawImage(layerCanvas, Assets.ImageKey.Player_X, board.getCellCenterX(col), board.getCellCenterY(row), scale);
+                break;
+                
+            case Board.KEY_O:
+                drawImage(layerCanvas, Assets.ImageKey.Player_O, board.getCellCenterX(col), board.getCellCenterY(row), scale);
+                break;
+                
+            //do nothing here
+            case Board.KEY_EMPTY:
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Draw the image from the atlas centered at the (x,y) coordinate
+     * @param canvas Object we want to render pixel data to
+     * @param key The image to draw
+     * @param x The x-coordinate of the center
+     * @param y The y-coordinate of the center
+     * @param scale How much to scale the image
+     */
+    private void drawImage(final Canvas canvas, final Assets.ImageKey key, final int x, final int y, final float scale)
+    {
+        final int width = (int)(Assets.getWidth(key) * scale);
+        final int height = (int)(Assets.getHeight(key) * scale);
+        
+        destination.set(x - (width / 2), y - (height / 2), x - (width / 2) + width, y - (height / 2) + height);
+        Assets.drawImage(canvas, key, destination, imagePaint);
+    }
+    
+    private void drawGameover(final Canvas canvas, final Board board)
+    {
+        switch (board.getWinningKey())
+        {
+            //draw the line to highlight the winner
+            case Board.KEY_X:
+            case Board.KEY_O:
+                if (board.hasMatchLocation())
+                {
+                    //calculate coordinates
+                    final int x1 = board.getCellCenterX(board.getMatchStartCol());
+                    final int y1 = board.getCellCenterY(board.getMatchStartRow());
+                    final int x2 = board.getCellCenterX(board.getMatchEndCol());
+                    final int y2 = board.getCellCenterY(board.getMatchEndRow());
+
+                    //draw the match line
+                    canvas.drawLine(x1, y1, x2, y2, matchPaint);
+                }
+                
+                break;
+
+            //it was a draw
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Draw the background of the board
+     * @param canvas Object we want to render pixel data to
+     * @param board The board we want to draw
+     */
+    private void drawBackground(final Canvas canvas, final Board board)
+    {
+        final int startX = board.getX();
+        final int startY = board.getY();
+        final int cellDimension = board.getCellDimension();
+        
+        for (int col = 1; col < board.getCols(); col++)
+        {
+            final int x = startX + (col * cellDimension);
+            canvas.drawLine(x, startY, x, startY + board.getBoardHeight(), this.backgroundPaint);
+        }
+
+        for (int row = 1; row < board.getRows(); row++)
+        {
+            final int y = startY + (row * cellDimension);
+            canvas.drawLine(startX, y, startX + board.getBoardWidth(), y, this.backgroundPaint);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.gamesbykevin.tictactoe.board;
+
+/**
+ * The underlying storage of the keys placed on a board
+ * @author ABRAHAM
+ */
+public interface BoardStorage
+{
+    /**
+     * Get the number of columns
+     * @return The number of columns in the board
+     */
+    public int getCols();
+    
+    /**
+     * Get the number of rows
+     * @return The number of rows in the board
+     */
+    public int getRows();
+    
+    /**
+     * Get the number of consecutive matches to identify a winner
+     * @return The number of keys in a row needed to win
+     */
+    public int getMatchCount();
+    
+    /**
+     * Get the key value at the specified location
+     * @param col Column
+     * @param row Row
+     * @return The key value at the specified location
+     */
+    public int getKey(final int col, final int row);
+    
+    /**
+     * Assign a key value to the specified location
+     * @param col Column
+     * @param row Row
+     * @param key The key value (empty, X, O)
+     */
+    public void setKey(final int col, final int row, final int key);
+    
+    /**
+     * Set every location to empty
+     */
+    public void clear();
+    
+    /**
+     * Do we have a match on the board? (a.k.a. # in a row)
+     * @param key The key to check for a match
+     * @return true = yes, false = no
+     */
+    public boolean hasMatch(final int key);
+    
+    /**
+     * Copy the keys from another storage with the same dimensions
+     * @param storage The storage we are copying
+     */
+    public void copy(final BoardStorage storage);
+    
+    /**
+     * Create a copy of this storage
+     * @return A new storage containing the same keys
+     */
+    public BoardStorage copy();
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.gamesbykevin.tictactoe.board;
+
+/**
+ * The rotations and reflections of a board that leave its shape unchanged.<br>
+ * A square board has 8 (the dihedral group), any other board has 4.
+ * Positions that are a symmetry of each other score the same,
+ * so each position can be mapped to a single canonical form.
+ * @author ABRAHAM
+ */
+public final class Symmetry
+{
+    /**
+     * The symmetry that leaves every location where it is
+     */
+    public static final int IDENTITY = 0;
+    
+    //the new location index of each location, for each symmetry
+    private final int[][] transforms;
+    
+    //the original location index of each location, for each symmetry
+    private final int[][] inverses;
+    
+    /**
+     * Create the symmetries for a board
+     * @param cols Columns
+     * @param rows Rows
+     */
+    public Symmetry(final int cols, final int rows)
+    {
+        final int count = (cols == rows) ? 8 : 4;
+        
+        this.transforms = new int[count][cols * rows];
+        this.inverses = new int[count][cols * rows];
+        
+        for (int col = 0; col < cols; col++)
+        {
+            for (int row = 0; row < rows; row++)
+            {
+                final int index = (row * cols) + col;
+                
+                //identity, rotate 180, mirror horizontal, mirror vertical
+                transforms[0][index] = index;
+                transforms[1][index] = ((rows - 1 - row) * cols) + (cols - 1 - col);
+                transforms[2][index] = (row * cols) + (cols - 1 - col);
+                transforms[3][index] = ((rows - 1 - row) * cols) + col;
+                
+                //only a square board can be rotated 90 degrees or transposed
+                if (count > 4)
+                {
+                    //rotate 90, rotate 270, transpose, anti-transpose
+                    transforms[4][index] = (col * cols) + (cols - 1 - row);
+                    transforms[5][index] = ((cols - 1 - col) * cols) + row;
+                    transforms[6][index] = (col * cols) + row;
+                    transforms[7][index] = ((cols - 1 - col) * cols) + (cols - 1 - row);
+                }
+            }
+        }
+        
+        for (int symmetry = 0; symmetry < count; symmetry++)
+        {
+            for (int index = 0; index < cols * rows; index++)
+            {
+                inverses[symmetry][transforms[symmetry][index]] = index;
+            }
+        }
+    }
+    
+    /**
+     * Get the number of symmetries
+     * @return The number of symmetries, including the identity
+     */
+    public int getCount()
+    {
+        return this.transforms.length;
+    }
+    
+    /**
+     * Get where a location ends up after applying a symmetry
+     * @param symmetry The symmetry
+     * @param index The index of the location (row * cols + col)
+     * @return The index of the location after the symmetry is applied
+     */
+    public int transform(final int symmetry, final int index)
+    {
+        return this.transforms[symmetry][index];
+    }
+    
+    /**
+     * Get where a location came from before applying a symmetry
+     * @param symmetry The symmetry
+     * @param index The index of the location after the symmetry was applied
+     * @return The index of the original location
+     */
+    public int inverse(final int symmetry, final int index)
+    {
+        return this.inverses[symmetry][index];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.gamesbykevin.tictactoe.board;
+
+import java.util.Random;
+
+/**
+ * Zobrist keys used to hash the positions on a board.<br>
+ * Every key placed on a location has its own random number,
+ * and the hash of a position is all of those numbers xor'd together.
+ * @author ABRAHAM
+ */
+public final class Zobrist
+{
+    /**
+     * The maximum number of locations we have keys for
+     */
+    public static final int MAX_LOCATIONS = 32 * 32;
+    
+    /**
+     * The seed used so every board uses the same keys
+     */
+    private static final long SEED = 0x5DEECE66DL;
+    
+    //the random number for each key at each location
+    private static final long[] KEYS = new long[MAX_LOCATIONS * 2];
+    
+    //the random number used to identify whose turn it is
+    private static final long SIDE;
+    
+    static
+    {
+        final Random random = new Random(SEED);
+        
+        for (int i = 0; i < KEYS.length; i++)
+        {
+            KEYS[i] = random.nextLong();
+        }
+        
+        SIDE = random.nextLong();
+    }
+    
+    private Zobrist()
+    {
+        //this class is not meant to be created
+    }
+    
+    /**
+     * Get the random number for the key at the location
+     * @param index The index of the location (row * cols + col)
+     * @param key The key (X, O)
+     * @return The random number, 0 if the key is empty
+     */
+    public static long getKey(final int index, final int key)
+    {
+        switch (key)
+        {
+            case Board.KEY_X:
+                return KEYS[index * 2];
+                
+            case Board.KEY_O:
+                return KEYS[(index * 2) + 1];
+                
+            default:
+                return 0;
+        }
+    }
+    
+    /**
+     * Get the random number identifying whose turn it is
+     * @param key The key of the player to move
+     * @return The random number when O is to move, 0 when X is to move
+     */
+    public static long getSide(final int key)
+    {
+        return (key == Board.KEY_O) ? SIDE : 0;
+    }
+}
\ No newline at end of file
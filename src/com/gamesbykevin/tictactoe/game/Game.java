@@ -1,18 +1,24 @@
 package com.gamesbykevin.tictactoe.game;
 
+import android.util.Log;
 import android.view.MotionEvent;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Typeface;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.tictactoe.ai.AI;
+import com.gamesbykevin.tictactoe.ai.AsyncAI;
 import com.gamesbykevin.tictactoe.assets.Assets;
 import com.gamesbykevin.tictactoe.board.Board;
 import com.gamesbykevin.tictactoe.board.BoardHelper;
+import com.gamesbykevin.tictactoe.board.BoardRenderer;
+import com.gamesbykevin.tictactoe.panel.GamePanel;
 import com.gamesbykevin.tictactoe.screen.MainScreen;
+import com.gamesbykevin.tictactoe.thread.MainThread;
+
+import java.util.concurrent.Future;
 
 /**
  * The main game logic will happen here
@@ -20,21 +26,21 @@ import com.gamesbykevin.tictactoe.screen.MainScreen;
  */
 public class Game implements Disposable
 {
-    //the game board
-    private Board board;
-    
-    //track which players turn
-    private boolean player1turn = true;
-    
-    //keep score
-    private int player1wins = 0, player2wins = 0, ties = 0;
+    //the board, turns and score
+    private Match match;
     
-    //our animations for X and O
-    private Animation animationX, animationO;
+    //object to draw the board
+    private BoardRenderer renderer;
     
     //object to draw text
     private Paint paint;
     
+    //the text below the board, only built again when the turn, result or score changes
+    private String statusText, player1Text, player2Text, tiesText;
+    
+    //does the text need to be built again
+    private boolean textChanged = true;
+    
     //our main screen object reference
     private final MainScreen screen;
     
@@ -49,18 +55,67 @@ public class Game implements Disposable
     //store the mode of gameplay
     private Mode mode;
     
+    /**
+     * The default difficulty of the cpu opponent
+     */
+    public static final AI.Difficulty DEFAULT_DIFFICULTY = AI.Difficulty.Hard;
+    
+    //how strong the cpu opponent plays
+    private AI.Difficulty difficulty = DEFAULT_DIFFICULTY;
+    
+    /**
+     * The space (pixels) on each side of the board
+     */
+    public static final int BOARD_MARGIN = 15;
+    
+    /**
+     * How much of the screen height the board can take up, the score is drawn below it
+     */
+    public static final double BOARD_HEIGHT_RATIO = .575;
+    
+    //our cpu opponent, working out moves on its own thread
+    private AsyncAI ai;
+    
+    //the move the cpu opponent is working out, null if none
+    private Future<Integer> pendingMove;
+    
+    //the time (nanoseconds) the pending move was requested
+    private long pendingMoveTime;
+    
+    /**
+     * The number of times in a row the cpu opponent can fail to work out a move before we stop asking until the next game
+     */
+    public static final int MAX_MOVE_FAILURES = 3;
+    
+    //the number of times in a row the cpu opponent failed to work out a move
+    private int moveFailures;
+    
+    /**
+     * The name of the game in logcat
+     */
+    public static final String TAG = "Game";
+    
     public Game(final MainScreen screen)
     {
         //our main screen object reference
         this.screen = screen;
         
         //setup objects
-        //if the board has not been created yet
-        this.board = new Board();
+        this.renderer = new BoardRenderer();
+        
+        //create the cpu opponent, the game is updated once it has a move
+        this.ai = new AsyncAI();
+        this.ai.setListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                screen.requestFrame();
+            }
+        });
         
-        //create the animation for the X and O
-        this.animationO = new Animation(Assets.getImage(Assets.ImageKey.Player_O), 0, 0, 156, 228, 1, 1, 1);
-        this.animationX = new Animation(Assets.getImage(Assets.ImageKey.Player_X), 0, 0, 142, 228, 1, 1, 1);
+        //create the board with the default dimensions
+        createBoard(Board.DEFAULT_BOARD_DIMENSION, Board.DEFAULT_BOARD_DIMENSION, BoardHelper.MATCH_COUNT);
         
         //create the text paint object
         this.paint = new Paint();
@@ -69,6 +124,49 @@ public class Game implements Disposable
         this.paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
     }
     
+    /**
+     * Create a new board, the score is only kept if the board is the same
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public final void createBoard(final int cols, final int rows, final int matchCount)
+    {
+        //nothing to do if the board is the same
+        if (getMatch() != null && getBoard().getCols() == cols && getBoard().getRows() == rows && getBoard().getMatchCount() == matchCount)
+            return;
+        
+        //the move being worked out is for the previous board
+        cancelPendingMove();
+        
+        this.match = new Match(new Board(cols, rows, matchCount));
+        this.moveFailures = 0;
+        this.textChanged = true;
+        
+        //the cells are as large as possible while the board fits on the screen
+        final int cellWidth = (GamePanel.WIDTH - (BOARD_MARGIN * 2)) / cols;
+        final int cellHeight = (int)(GamePanel.HEIGHT * BOARD_HEIGHT_RATIO) / rows;
+        getBoard().setCellDimension(Math.min(Board.CELL_DIMENSION, Math.min(cellWidth, cellHeight)));
+        
+        //position board in the middle
+        getBoard().setX((GamePanel.WIDTH * .5) - (getBoard().getBoardWidth() * .5));
+        getBoard().setY((GamePanel.HEIGHT * .5) - (getBoard().getBoardHeight() * .6));
+        
+        seedGame();
+    }
+    
+    /**
+     * Seed the random decisions of the cpu opponent for a new game.<br>
+     * The seed is kept in the move log, so the game can be replayed and the decisions repeated.
+     */
+    private void seedGame()
+    {
+        final long seed = System.nanoTime();
+        
+        getMatch().getMoveLog().setSeed(seed);
+        ai.setSeed(seed);
+    }
+    
     public Mode getMode()
     {
         return this.mode;
@@ -78,13 +176,20 @@ public class Game implements Disposable
     {
         //if the mode has changed, reset win counters
         if (getMode() != mode)
-        {
-            this.player1wins = 0;
-            this.player2wins = 0;
-            this.ties = 0;
-        }
+            getMatch().resetScore();
         
         this.mode = mode;
+        this.textChanged = true;
+    }
+    
+    public AI.Difficulty getDifficulty()
+    {
+        return this.difficulty;
+    }
+    
+    public void setDifficulty(final AI.Difficulty difficulty)
+    {
+        this.difficulty = difficulty;
     }
     
     /**
@@ -94,44 +199,33 @@ public class Game implements Disposable
      * @param y (y-coordinate)
      */
     public void updateMotionEvent(final MotionEvent event, final float x, final float y)
+    {
+        updateMotionEvent(event.getAction(), x, y);
+    }
+    
+    /**
+     * Update the game based on a touch
+     * @param action The action of the motion event
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     */
+    public void updateMotionEvent(final int action, final float x, final float y)
     {
         //if the game is over no way we can continue
         if (getBoard().hasGameover())
             return;
         
-        if (event.getAction() == MotionEvent.ACTION_UP)
+        if (action == MotionEvent.ACTION_UP)
         {
-            //this will determine if a move was made
-            boolean result = false;
-            
-            if (mode == Mode.SinglePlayer)
-            {
-                if (player1turn)
-                {
-                    //get the result of the move
-                    result = getBoard().assignKey(x, y, Board.KEY_X);
-                }
-            }
-            else
-            {
-                if (player1turn)
-                {
-                    //get the result of the move
-                    result = getBoard().assignKey(x, y, Board.KEY_X);
-                }
-                else
-                {
-                    //get the result of the move
-                    result = getBoard().assignKey(x, y, Board.KEY_O);
-                }
-            }
+            //in single player the human can only move on their turn
+            if (mode == Mode.SinglePlayer && !getMatch().isPlayer1Turn())
+                return;
             
             //if move was made
-            if (result)
+            if (getMatch().play(x, y))
             {
-                //switch turns
-                this.player1turn = !this.player1turn;
-
+                this.textChanged = true;
+                
                 //play sound effect
                 Assets.playAudio(Assets.AudioKey.Move);
 
@@ -151,60 +245,133 @@ public class Game implements Disposable
         if (mode == Mode.SinglePlayer)
         {
             //also make sure it is the ai's turn
-            if (!player1turn)
+            if (!getMatch().isPlayer1Turn())
             {
-                //analyze and perform move
-                AI.analyze(getBoard(), Board.KEY_O, Board.KEY_X);
-
-                //switch turns
-                this.player1turn = !this.player1turn;
+                if (pendingMove == null)
+                {
+                    //the cpu opponent keeps failing, don't ask again until the next game
+                    if (hasMoveFailed())
+                        return;
+                    
+                    //start working out our move
+                    this.pendingMove = ai.requestMove(getBoard(), Board.KEY_O, Board.KEY_X, getDifficulty());
+                    this.pendingMoveTime = System.nanoTime();
+                }
+                else if (pendingMove.isDone())
+                {
+                    //get the chosen location
+                    final int move = getPendingMove();
+                    
+                    //if there was no move, we will request again a few times before giving up
+                    if (move < 0)
+                    {
+                        this.moveFailures++;
+                        
+                        if (hasMoveFailed())
+                        {
+                            Log.e(TAG, "The cpu opponent failed to move " + moveFailures + " times in a row, giving up until the next game");
+                            this.textChanged = true;
+                        }
+                        else
+                        {
+                            screen.requestFrame();
+                        }
+                        
+                        return;
+                    }
+                    
+                    this.moveFailures = 0;
+                    
+                    //perform move
+                    getMatch().play(move % getBoard().getCols(), move / getBoard().getCols());
+                    this.textChanged = true;
+                    
+                    //how long the player waited for the move
+                    MainThread.METRICS.recordAiMove(System.nanoTime() - pendingMoveTime);
 
-                //track winner
-                trackWinner();
+                    //track winner
+                    trackWinner();
+                }
             }
         }
     }
     
     /**
-     * Check if there is a winner
-     * @param key The key to check for winning match
+     * Get the result of the move the cpu opponent worked out
+     * @return The index (row * cols + col) of the chosen location, -1 if no move was chosen
      */
-    private void checkWin(final int key)
+    private int getPendingMove()
     {
-        //if there is a match, we have a win
-        if (getBoard().hasMatch(key))
+        try
         {
-            getBoard().setWinningKey(key);
-            getBoard().setGameover(true);
-            BoardHelper.markMatch(getBoard(), key);
+            final Integer move = pendingMove.get();
+            return (move == null) ? -1 : move.intValue();
+        }
+        catch (Exception e)
+        {
+            Log.e(TAG, "The cpu opponent failed to move", e);
+            return -1;
+        }
+        finally
+        {
+            this.pendingMove = null;
         }
     }
     
     /**
-     * Make sure we continue to keep score
+     * Did the cpu opponent fail to move too many times in a row?
+     * @return true if we stopped asking for a move until the next game, false otherwise
      */
-    private void trackWinner()
+    public boolean hasMoveFailed()
     {
-        //see if either won
-        checkWin(Board.KEY_X);
-        checkWin(Board.KEY_O);
+        return (moveFailures >= MAX_MOVE_FAILURES);
+    }
+    
+    /**
+     * Cancel the move the cpu opponent is working out
+     */
+    private void cancelPendingMove()
+    {
+        if (pendingMove != null)
+        {
+            pendingMove.cancel(true);
+            pendingMove = null;
+        }
+    }
+    
+    /**
+     * Reset the board for a new game
+     */
+    public void reset()
+    {
+        //the move being worked out is for the previous board
+        cancelPendingMove();
+        
+        getMatch().reset();
+        seedGame();
         
+        this.moveFailures = 0;
+        this.textChanged = true;
+    }
+    
+    /**
+     * Play the result once the game is over, the score is kept by the match
+     */
+    private void trackWinner()
+    {
         if (getBoard().hasGameover())
         {
             switch (getBoard().getWinningKey())
             {
                 case Board.KEY_EMPTY:
-                    this.ties++;
                     Assets.playAudio(Assets.AudioKey.Tie);
                     break;
                     
                 case Board.KEY_O:
-                    this.player2wins++;
                     Assets.playAudio(Assets.AudioKey.Lose);
                     break;
                     
                 case Board.KEY_X:
-                    this.player1wins++;
                     Assets.playAudio(Assets.AudioKey.Win);
                     break;
             }
@@ -214,74 +381,96 @@ public class Game implements Disposable
         }
     }
     
+    public final Match getMatch()
+    {
+        return this.match;
+    }
+    
     public final Board getBoard()
     {
-        return this.board;
+        return getMatch().getBoard();
     }
     
     @Override
     public void dispose()
     {
-        //recycle these objects
-        this.animationO = null;
-        this.animationX = null;
-        this.board = null;
+        //stop the cpu opponent
+        cancelPendingMove();
+        
+        if (ai != null)
+        {
+            ai.shutdown();
+            ai = null;
+        }
+        
+        if (renderer != null)
+        {
+            renderer.dispose();
+            renderer = null;
+        }
     }
     
-    public void render(final Canvas canvas)
+    /**
+     * Build the text below the board for the current turn, result and score
+     */
+    private void updateText()
     {
-        //render board game elements
-        getBoard().draw(canvas, animationX.getImage(), animationO.getImage());
-        
-        //the text coordinates
-        final int fontHeight = 55;
-        int startX = 70;
-        int startY = getBoard().getY() + getBoard().getBoardHeight() + fontHeight;
-
         //if not game over indicate whose turn it is
         if (getBoard().hasGameover())
         {
-            //text description
-            final String text;
-
             switch (getBoard().getWinningKey())
             {
                 case Board.KEY_O:
-                    text = "Player 2 Wins";
+                    this.statusText = "Player 2 Wins";
                     break;
 
                 case Board.KEY_X:
-                    text = "Player 1 Wins";
+                    this.statusText = "Player 1 Wins";
                     break;
 
                 default:
                 case Board.KEY_EMPTY:
-                    text = "Tie game";
+                    this.statusText = "Tie game";
                     break;
             }
-
-            startY += fontHeight;
-            canvas.drawText(text, startX, startY, paint);
+        }
+        else if (hasMoveFailed())
+        {
+            this.statusText = "Cpu can't move - Start a new game";
         }
         else
         {
-            startY += fontHeight;
-            
-            if (getBoard().hasGameover())
-            {
-                canvas.drawText("Score Board", startX, startY, paint);
-            }
-            else 
-            {
-                canvas.drawText((player1turn) ? "Player 1's Turn - X" : "Player 2's Turn - O", startX, startY, paint);
-            }
+            this.statusText = (getMatch().isPlayer1Turn()) ? "Player 1's Turn - X" : "Player 2's Turn - O";
         }
+        
+        this.player1Text = "Player 1 Wins (Hum): " + getMatch().getPlayer1Wins();
+        this.player2Text = (mode == Mode.SinglePlayer) ? "Player 2 Wins (Cpu): " + getMatch().getPlayer2Wins() : "Player 2 Wins (Hum): " + getMatch().getPlayer2Wins();
+        this.tiesText = "Tie Games: " + getMatch().getTies();
+        
+        this.textChanged = false;
+    }
+    
+    public void render(final Canvas canvas)
+    {
+        //render board game elements, the board is only drawn again when it changes
+        renderer.draw(canvas, getBoard());
+        
+        //the text is only built again when it changes
+        if (textChanged)
+            updateText();
+        
+        //the text coordinates
+        final int fontHeight = 55;
+        int startX = 70;
+        int startY = getBoard().getY() + getBoard().getBoardHeight() + fontHeight;
 
         startY += fontHeight;
-        canvas.drawText("Player 1 Wins (Hum): " + player1wins, startX, startY, paint);
+        canvas.drawText(statusText, startX, startY, paint);
+        startY += fontHeight;
+        canvas.drawText(player1Text, startX, startY, paint);
         startY += fontHeight;
-        canvas.drawText((mode == Mode.SinglePlayer) ? "Player 2 Wins (Cpu): " + player2wins : "Player 2 Wins (Hum): " + player2wins, startX, startY, paint);
+        canvas.drawText(player2Text, startX, startY, paint);
         startY += fontHeight;
-        canvas.drawText("Tie Games: " + ties, startX, startY, paint);
+        canvas.drawText(tiesText, startX, startY, paint);
     }
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.gamesbykevin.tictactoe.game;
+
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.BoardHelper;
+
+/**
+ * The turns and score of a series of games on one board.<br>
+ * This has no dependency on android, so games can be played without a screen.
+ * @author ABRAHAM
+ */
+public final class Match
+{
+    //the game board
+    private final Board board;
+    
+    //track which players turn
+    private boolean player1turn = true;
+    
+    //keep score
+    private int player1wins = 0, player2wins = 0, ties = 0;
+    
+    //the moves of the current game
+    private final MoveLog log;
+    
+    /**
+     * Create a match on a board with the default dimensions
+     */
+    public Match()
+    {
+        this(new Board());
+    }
+    
+    /**
+     * Create a match
+     * @param board The board the games are played on
+     */
+    public Match(final Board board)
+    {
+        this.board = board;
+        this.log = new MoveLog(board.getCols(), board.getRows(), board.getMatchCount());
+    }
+    
+    public final Board getBoard()
+    {
+        return this.board;
+    }
+    
+    /**
+     * Get the moves of the current game
+     * @return The move log, cleared when the board is reset
+     */
+    public MoveLog getMoveLog()
+    {
+        return this.log;
+    }
+    
+    /**
+     * Is it player 1's turn?
+     * @return true = player 1 (X), false = player 2 (O)
+     */
+    public boolean isPlayer1Turn()
+    {
+        return this.player1turn;
+    }
+    
+    /**
+     * Assign whose turn it is
+     * @param player1turn true = player 1 (X), false = player 2 (O)
+     */
+    public void setPlayer1Turn(final boolean player1turn)
+    {
+        this.player1turn = player1turn;
+    }
+    
+    /**
+     * Get the key of the player whose turn it is
+     * @return The key of the current player
+     */
+    public int getTurnKey()
+    {
+        return (player1turn) ? Board.KEY_X : Board.KEY_O;
+    }
+    
+    /**
+     * Get the key of the player waiting for their turn
+     * @return The key of the other player
+     */
+    public int getOpponentKey()
+    {
+        return (player1turn) ? Board.KEY_O : Board.KEY_X;
+    }
+    
+    public int getPlayer1Wins()
+    {
+        return this.player1wins;
+    }
+    
+    public int getPlayer2Wins()
+    {
+        return this.player2wins;
+    }
+    
+    public int getTies()
+    {
+        return this.ties;
+    }
+    
+    /**
+     * Place the key of the current player at the (x,y) coordinate
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return true if a move was made, false otherwise
+     */
+    public boolean play(final float x, final float y)
+    {
+        //if the game is over no way we can continue
+        if (getBoard().hasGameover())
+            return false;
+        
+        if (!getBoard().assignKey(x, y, getTurnKey()))
+            return false;
+        
+        completeMove();
+        return true;
+    }
+    
+    /**
+     * Place the key of the current player at the location
+     * @param col Column
+     * @param row Row
+     * @return true if a move was made, false otherwise
+     */
+    public boolean play(final int col, final int row)
+    {
+        //if the game is over no way we can continue
+        if (getBoard().hasGameover())
+            return false;
+        
+        //we can only make a move where empty
+        if (getBoard().getKey(col, row) != Board.KEY_EMPTY)
+            return false;
+        
+        getBoard().assignKey(col, row, getTurnKey());
+        completeMove();
+        return true;
+    }
+    
+    /**
+     * Record the move, switch turns and keep score once a move has been made
+     */
+    private void completeMove()
+    {
+        //record the move
+        getMoveLog().add((getBoard().getLastRow() * getBoard().getCols()) + getBoard().getLastCol(), getTurnKey());
+        
+        //switch turns
+        this.player1turn = !this.player1turn;
+        
+        //check for a winner
+        trackWinner();
+    }
+    
+    /**
+     * Check if the last move made a winner
+     */
+    private void checkWin()
+    {
+        final int col = getBoard().getLastCol();
+        final int row = getBoard().getLastRow();
+        
+        //only the lines through the last move can have a new match
+        if (BoardHelper.markMatch(getBoard(), col, row))
+        {
+            getBoard().setWinningKey(getBoard().getKey(col, row));
+            getBoard().setGameover(true);
+        }
+    }
+    
+    /**
+     * Make sure we continue to keep score
+     */
+    private void trackWinner()
+    {
+        //see if the last move won
+        checkWin();
+        
+        if (getBoard().hasGameover())
+        {
+            switch (getBoard().getWinningKey())
+            {
+                case Board.KEY_EMPTY:
+                    this.ties++;
+                    break;
+                    
+                case Board.KEY_O:
+                    this.player2wins++;
+                    break;
+                    
+                case Board.KEY_X:
+                    this.player1wins++;
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * Reset the board and the move log for a new game, the score is kept
+     */
+    public void reset()
+    {
+        getBoard().reset();
+        getMoveLog().clear();
+    }
+    
+    /**
+     * Reset the win counters
+     */
+    public void resetScore()
+    {
+        this.player1wins = 0;
+        this.player2wins = 0;
+        this.ties = 0;
+    }
+}
\ No newline at end of file
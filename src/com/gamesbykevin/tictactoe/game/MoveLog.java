@@ -0,0 +1,254 @@
+package com.gamesbykevin.tictactoe.game;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The moves of a single game, in the order they were made.<br>
+ * The log has the seed of the random decisions and the configuration of the board,
+ * so the game can be rebuilt by a replay without running the ai again.<br>
+ * When written, each move is the index (row * cols + col) of the location as a variable length number,
+ * one byte for boards of up to 128 locations and two bytes for larger boards.
+ * @author ABRAHAM
+ */
+public final class MoveLog
+{
+    /**
+     * The version of the format written, the first byte of every log
+     */
+    public static final int VERSION = 1;
+    
+    //the seed of the random decisions made during the game
+    private long seed;
+    
+    //the dimensions and match count of the board
+    private final int cols, rows, matchCount;
+    
+    //the key of the player who made the first move
+    private int firstKey = Board.KEY_EMPTY;
+    
+    //the index of each move, and the number of moves made
+    private final int[] moves;
+    private int moveCount;
+    
+    /**
+     * Create an empty log
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public MoveLog(final int cols, final int rows, final int matchCount)
+    {
+        this.cols = cols;
+        this.rows = rows;
+        this.matchCount = matchCount;
+        
+        //there can't be more moves than locations
+        this.moves = new int[cols * rows];
+    }
+    
+    public int getCols()
+    {
+        return this.cols;
+    }
+    
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    public int getMatchCount()
+    {
+        return this.matchCount;
+    }
+    
+    /**
+     * Assign the seed of the random decisions made during the game
+     * @param seed The seed given to the ai
+     */
+    public void setSeed(final long seed)
+    {
+        this.seed = seed;
+    }
+    
+    public long getSeed()
+    {
+        return this.seed;
+    }
+    
+    /**
+     * Get the key of the player who made the first move
+     * @return The key of the first player, KEY_EMPTY if no moves have been made
+     */
+    public int getFirstKey()
+    {
+        return this.firstKey;
+    }
+    
+    /**
+     * Get the number of moves made
+     * @return The number of moves in the log
+     */
+    public int getMoveCount()
+    {
+        return this.moveCount;
+    }
+    
+    /**
+     * Get a move
+     * @param ply The number of moves made before this one
+     * @return The index (row * cols + col) of the location
+     */
+    public int getMove(final int ply)
+    {
+        return this.moves[ply];
+    }
+    
+    /**
+     * Add a move to the log
+     * @param index The index (row * cols + col) of the location
+     * @param key The key of the player making the move
+     */
+    public void add(final int index, final int key)
+    {
+        if (moveCount == 0)
+            this.firstKey = key;
+        
+        this.moves[moveCount] = index;
+        this.moveCount++;
+    }
+    
+    /**
+     * Remove every move, the seed is kept
+     */
+    public void clear()
+    {
+        this.moveCount = 0;
+        this.firstKey = Board.KEY_EMPTY;
+    }
+    
+    /**
+     * Write the log, the stream is not closed so more logs can follow
+     * @param stream The stream we want to write the log to
+     * @throws IOException If the log can't be written
+     */
+    public void write(final OutputStream stream) throws IOException
+    {
+        final DataOutputStream output = new DataOutputStream(stream);
+        
+        output.writeByte(VERSION);
+        output.writeLong(getSeed());
+        output.writeByte(getCols());
+        output.writeByte(getRows());
+        output.writeByte(getMatchCount());
+        output.writeByte(getFirstKey());
+        writeNumber(output, getMoveCount());
+        
+        for (int ply = 0; ply < getMoveCount(); ply++)
+        {
+            writeNumber(output, getMove(ply));
+        }
+    }
+    
+    /**
+     * Read the next log, the stream is not closed so more logs can be read
+     * @param stream The stream containing the log
+     * @return The log, null if the stream has no more logs
+     * @throws IOException If the log can't be read or isn't valid
+     */
+    public static MoveLog read(final InputStream stream) throws IOException
+    {
+        final int version = stream.read();
+        
+        //there are no more logs
+        if (version < 0)
+            return null;
+        
+        if (version != VERSION)
+            throw new IOException("Move log version is not supported: " + version);
+        
+        final DataInputStream input = new DataInputStream(stream);
+        
+        final long seed = input.readLong();
+        final int cols = input.readUnsignedByte();
+        final int rows = input.readUnsignedByte();
+        final int matchCount = input.readUnsignedByte();
+        final int firstKey = input.readUnsignedByte();
+        
+        //check the header before anything is created from it, so a corrupt log is reported as one
+        if (cols < 1 || cols > Board.MAX_BOARD_DIMENSION || rows < 1 || rows > Board.MAX_BOARD_DIMENSION)
+            throw new IOException("Move log board dimensions are not supported: " + cols + "x" + rows);
+        
+        if (matchCount < Board.MIN_MATCH_COUNT || matchCount > Board.MAX_MATCH_COUNT || matchCount > Math.max(cols, rows))
+            throw new IOException("Move log match count is not supported: " + matchCount + " on " + cols + "x" + rows);
+        
+        final int moveCount = readNumber(input);
+        
+        if (firstKey != Board.KEY_X && firstKey != Board.KEY_O && (firstKey != Board.KEY_EMPTY || moveCount > 0))
+            throw new IOException("Move log first key is not valid: " + firstKey);
+        
+        if (moveCount < 0 || moveCount > cols * rows)
+            throw new IOException("Move log has " + moveCount + " moves on a " + cols + "x" + rows + " board");
+        
+        final MoveLog log = new MoveLog(cols, rows, matchCount);
+        log.setSeed(seed);
+        
+        for (int ply = 0; ply < moveCount; ply++)
+        {
+            final int index = readNumber(input);
+            
+            if (index < 0 || index >= cols * rows)
+                throw new IOException("Move " + ply + " is off the board: " + index);
+            
+            log.add(index, firstKey);
+        }
+        
+        return log;
+    }
+    
+    /**
+     * Write a number 7 bits at a time, the high bit is set when more bytes follow
+     * @param output The stream we are writing to
+     * @param number The number, not negative
+     * @throws IOException If the number can't be written
+     */
+    private static void writeNumber(final DataOutputStream output, final int number) throws IOException
+    {
+        int remaining = number;
+        
+        while (remaining >= 0x80)
+        {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        
+        output.writeByte(remaining);
+    }
+    
+    /**
+     * Read a number written 7 bits at a time
+     * @param input The stream we are reading from
+     * @return The number
+     * @throws IOException If the number can't be read
+     */
+    private static int readNumber(final DataInputStream input) throws IOException
+    {
+        int number = 0;
+        
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            final int value = input.readUnsignedByte();
+            number |= (value & 0x7F) << shift;
+            
+            if ((value & 0x80) == 0)
+                return number;
+        }
+        
+        throw new IOException("Move log number is too long");
+    }
+}
\ No newline at end of file
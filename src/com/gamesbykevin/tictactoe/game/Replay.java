@@ -0,0 +1,126 @@
+package com.gamesbykevin.tictactoe.game;
+
+import com.gamesbykevin.tictactoe.board.Board;
+
+/**
+ * Rebuilds a game from its move log.<br>
+ * The moves are played on a match of their own, so the winner and winning line are worked out the same way as the game did.
+ * Going back a move plays the game again from the start, which is only one key per move.
+ * @author ABRAHAM
+ */
+public final class Replay
+{
+    //the moves of the game
+    private final MoveLog log;
+    
+    //the match the moves are played on
+    private final Match match;
+    
+    //the number of moves played
+    private int ply;
+    
+    /**
+     * Create a replay at the start of the game
+     * @param log The moves of the game
+     */
+    public Replay(final MoveLog log)
+    {
+        this.log = log;
+        this.match = new Match(new Board(log.getCols(), log.getRows(), log.getMatchCount()));
+        
+        restart();
+    }
+    
+    public MoveLog getMoveLog()
+    {
+        return this.log;
+    }
+    
+    public Match getMatch()
+    {
+        return this.match;
+    }
+    
+    public Board getBoard()
+    {
+        return getMatch().getBoard();
+    }
+    
+    /**
+     * Get the number of moves played
+     * @return The number of moves played, from 0 to the move count of the log
+     */
+    public int getPly()
+    {
+        return this.ply;
+    }
+    
+    /**
+     * Play the next move
+     * @return true if a move was played, false if every move has been played
+     */
+    public boolean next()
+    {
+        if (getPly() >= log.getMoveCount())
+            return false;
+        
+        final int move = log.getMove(getPly());
+        
+        if (!getMatch().play(move % log.getCols(), move / log.getCols()))
+            throw new IllegalStateException("Move " + getPly() + " can't be played at " + move);
+        
+        this.ply++;
+        return true;
+    }
+    
+    /**
+     * Go back to the previous move
+     * @return true if a move was taken back, false if no moves have been played
+     */
+    public boolean previous()
+    {
+        if (getPly() == 0)
+            return false;
+        
+        seek(getPly() - 1);
+        return true;
+    }
+    
+    /**
+     * Go to the position after a number of moves
+     * @param ply The number of moves played, from 0 to the move count of the log
+     */
+    public void seek(final int ply)
+    {
+        if (ply < 0 || ply > log.getMoveCount())
+            throw new IllegalArgumentException("Ply must be from 0 to " + log.getMoveCount() + ": " + ply);
+        
+        //the board can't be played backwards, so start over
+        if (ply < getPly())
+            restart();
+        
+        while (getPly() < ply)
+        {
+            next();
+        }
+    }
+    
+    /**
+     * Play every move
+     */
+    public void end()
+    {
+        seek(log.getMoveCount());
+    }
+    
+    /**
+     * Go back to the start of the game
+     */
+    private void restart()
+    {
+        getMatch().reset();
+        getMatch().setPlayer1Turn(log.getFirstKey() != Board.KEY_O);
+        
+        this.ply = 0;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.gamesbykevin.tictactoe.panel;
 
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.media.MediaPlayer;
 import android.view.MotionEvent;
@@ -12,9 +11,13 @@ import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.tictactoe.screen.MainScreen;
 import com.gamesbykevin.tictactoe.R;
 import com.gamesbykevin.tictactoe.TicTacToe;
+import com.gamesbykevin.tictactoe.ai.AI;
+import com.gamesbykevin.tictactoe.ai.OpeningBook;
 import com.gamesbykevin.tictactoe.assets.Assets;
 import com.gamesbykevin.tictactoe.thread.MainThread;
 
+import java.io.IOException;
+
 /**
  * Game Panel class
  * @author ABRAHAM
@@ -34,6 +37,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     //our main game thread
     private MainThread thread;
     
+    //the touches waiting to be handled by the game thread
+    private final InputQueue input = new InputQueue();
+    
     /**
      * Create a new game panel
      * @param activity Our main activity 
@@ -114,23 +120,48 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
      */
     private void loadAssets()
     {
-        //load images
-        Assets.assignImage(Assets.ImageKey.Player_X, BitmapFactory.decodeResource(getResources(), R.drawable.x));
-        Assets.assignImage(Assets.ImageKey.Player_O, BitmapFactory.decodeResource(getResources(), R.drawable.o));
-        Assets.assignImage(Assets.ImageKey.Button_ExitGame, BitmapFactory.decodeResource(getResources(), R.drawable.exitgame));
-        Assets.assignImage(Assets.ImageKey.Button_MoreGames, BitmapFactory.decodeResource(getResources(), R.drawable.moregames));
-        Assets.assignImage(Assets.ImageKey.Button_NewGame_1_Player, BitmapFactory.decodeResource(getResources(), R.drawable.newgame1player));
-        Assets.assignImage(Assets.ImageKey.Button_NewGame_2_Player, BitmapFactory.decodeResource(getResources(), R.drawable.newgame2player));
-        Assets.assignImage(Assets.ImageKey.Button_ResumeGame, BitmapFactory.decodeResource(getResources(), R.drawable.resumegame));
-        Assets.assignImage(Assets.ImageKey.Button_Instructions, BitmapFactory.decodeResource(getResources(), R.drawable.instructions));
-        Assets.assignImage(Assets.ImageKey.Button_RateGame, BitmapFactory.decodeResource(getResources(), R.drawable.rategame));
-        Assets.assignImage(Assets.ImageKey.Title, BitmapFactory.decodeResource(getResources(), R.drawable.title));
-
         //load audio
         Assets.assignAudio(Assets.AudioKey.Win, MediaPlayer.create(getActivity(), R.raw.sound_win));
         Assets.assignAudio(Assets.AudioKey.Lose, MediaPlayer.create(getActivity(), R.raw.sound_lose));
         Assets.assignAudio(Assets.AudioKey.Move, MediaPlayer.create(getActivity(), R.raw.sound_move));
         Assets.assignAudio(Assets.AudioKey.Tie, MediaPlayer.create(getActivity(), R.raw.sound_tie));
+        
+        //load the solved positions for the ai
+        if (!AI.hasOpeningBook())
+        {
+            try
+            {
+                AI.setOpeningBook(OpeningBook.load(getResources().openRawResource(R.raw.opening_book)));
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Get how much smaller the images can be decoded for the size of this view.<br>
+     * The game is scaled to fit the view, so an image decoded smaller still has every pixel that is shown.
+     * @return The sample size, a power of 2, 1 unless the view is at most half the game dimensions
+     */
+    private int getSampleSize()
+    {
+        //how much the game is scaled to fit the view
+        final float scale = Math.max((float)getWidth() / WIDTH, (float)getHeight() / HEIGHT);
+        
+        int sampleSize = 1;
+        
+        //the view doesn't have a size yet
+        if (scale <= 0)
+            return sampleSize;
+        
+        while (scale * sampleSize * 2 <= 1f)
+        {
+            sampleSize *= 2;
+        }
+        
+        return sampleSize;
     }
     
     /**
@@ -145,6 +176,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             //load game resources
             loadAssets();
             
+            //the view has its size now, so the images are decoded for it
+            Assets.loadImages(getResources(), getSampleSize());
+            
             //make sure the screen is created first before the thread starts
             if (this.screen == null)
                 this.screen = new MainScreen(this);
@@ -161,6 +195,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                 this.thread.start();
             }
             
+            //the new surface needs to be drawn
+            requestFrame();
+            
         }
         catch (Exception e)
         {
@@ -183,8 +220,13 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                 final float x = event.getRawX() * scaleFactorX;
                 final float y = event.getRawY() * scaleFactorY;
 
-                //update the events
-                return this.screen.update(event, x, y);
+                //the game thread handles the touch, so the game is only changed on that thread
+                input.offer(new InputEvent(event.getAction(), x, y));
+                
+                //the touch can change what is on screen
+                requestFrame();
+                
+                return true;
             }
         }
         catch (Exception e)
@@ -206,7 +248,21 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height)
     {
-        //does anything need to be done here?
+        //draw the surface at its new size
+        requestFrame();
+    }
+    
+    /**
+     * Request the game to be updated and rendered.<br>
+     * The game loop only renders when a frame is requested, this can be called from any thread.
+     */
+    public void requestFrame()
+    {
+        //store a reference in case the thread is disposed
+        final MainThread thread = this.thread;
+        
+        if (thread != null)
+            thread.requestFrame();
     }
     
     /**
@@ -217,7 +273,17 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         try
         {
             if (screen != null)
+            {
+                //handle the touches since the last update first
+                InputEvent event;
+                
+                while ((event = input.poll()) != null)
+                {
+                    screen.update(event.getAction(), event.getX(), event.getY());
+                }
+                
                 screen.update();
+            }
         }
         catch (Exception e)
         {
@@ -0,0 +1,76 @@
+package com.gamesbykevin.tictactoe.panel;
+
+/**
+ * A touch, copied from the motion event on the ui thread so it can be handled on the game thread.<br>
+ * The coordinates are already scaled to the game dimensions.
+ * The actions have the same values as the actions of a motion event, so the queue can be built and tested without android.
+ * @author ABRAHAM
+ */
+public final class InputEvent
+{
+    /**
+     * The actions of a motion event used by the queue, the same values as MotionEvent
+     */
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    
+    /**
+     * Removes the pointer index from an action, the same value as MotionEvent
+     */
+    public static final int ACTION_MASK = 0xff;
+    
+    //the action of the motion event (down, up, move, etc...)
+    private final int action;
+    
+    //the coordinates of the touch
+    private final float x, y;
+    
+    /**
+     * Create a touch
+     * @param action The action of the motion event
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    public InputEvent(final int action, final float x, final float y)
+    {
+        this.action = action;
+        this.x = x;
+        this.y = y;
+    }
+    
+    public int getAction()
+    {
+        return this.action;
+    }
+    
+    public float getX()
+    {
+        return this.x;
+    }
+    
+    public float getY()
+    {
+        return this.y;
+    }
+    
+    /**
+     * Is this a move of a touch already down?
+     * @return true if only the coordinates of the touch changed, false otherwise
+     */
+    public boolean isMove()
+    {
+        return ((action & ACTION_MASK) == ACTION_MOVE);
+    }
+    
+    /**
+     * Is this the end of a touch?
+     * @return true if the touch was lifted or cancelled, false otherwise
+     */
+    public boolean isFinal()
+    {
+        final int masked = (action & ACTION_MASK);
+        return (masked == ACTION_UP || masked == ACTION_CANCEL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.gamesbykevin.tictactoe.panel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Passes touches from the ui thread to the game thread without locking.<br>
+ * Only one thread can offer (the ui thread) and only one thread can poll (the game thread).
+ * Each side only writes its own position, and publishes it after the event is written or cleared,
+ * so the other side always sees a complete event.
+ * A move replaces a move still waiting at the end of the queue, and the last space is kept for the end of a touch,
+ * so once the start of a touch is added its end is never dropped.
+ * @author ABRAHAM
+ */
+public final class InputQueue
+{
+    /**
+     * The default number of touches that can wait for the game thread
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+    
+    //the waiting touches, the positions wrap around
+    private final AtomicReferenceArray<InputEvent> events;
+    
+    //used to wrap a position around to an index
+    private final int mask;
+    
+    //the position of the next touch offered, only written by the ui thread
+    private final AtomicLong tail = new AtomicLong();
+    
+    //the position of the next touch polled, only written by the game thread
+    private final AtomicLong head = new AtomicLong();
+    
+    /**
+     * Create a queue with the default capacity
+     */
+    public InputQueue()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Create a queue
+     * @param capacity The number of touches that can wait, a power of 2
+     */
+    public InputQueue(final int capacity)
+    {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be a power of 2: " + capacity);
+        
+        this.events = new AtomicReferenceArray<InputEvent>(capacity);
+        this.mask = capacity - 1;
+    }
+    
+    /**
+     * Add a touch, only called by the ui thread
+     * @param event The touch
+     * @return true if added, false if the queue is full and the touch was dropped
+     */
+    public boolean offer(final InputEvent event)
+    {
+        final long position = tail.get();
+        
+        //only the latest coordinates of a move are needed, so replace a move the game thread hasn't taken yet
+        if (event.isMove() && position != head.get())
+        {
+            final int last = (int)(position - 1) & mask;
+            final InputEvent previous = events.get(last);
+            
+            //if the game thread takes the move first, the slot is cleared and the move is added as usual
+            if (previous != null && previous.isMove() && events.compareAndSet(last, previous, event))
+                return true;
+        }
+        
+        //the number of spaces the game thread hasn't caught up to
+        final long free = events.length() - (position - head.get());
+        
+        //the last space is only for the end of a touch
+        if (free == 0 || (free == 1 && !event.isFinal()))
+            return false;
+        
+        this.events.lazySet((int)position & mask, event);
+        
+        //publish the touch after it is written
+        tail.lazySet(position + 1);
+        return true;
+    }
+    
+    /**
+     * Remove the oldest touch, only called by the game thread
+     * @return The touch, null if there are none waiting
+     */
+    public InputEvent poll()
+    {
+        final long position = head.get();
+        
+        if (position == tail.get())
+            return null;
+        
+        //cleared as it is taken, so a move can't replace it afterwards
+        final InputEvent event = events.getAndSet((int)position & mask, null);
+        
+        //free the space after it is cleared
+        head.lazySet(position + 1);
+        return event;
+    }
+}
\ No newline at end of file
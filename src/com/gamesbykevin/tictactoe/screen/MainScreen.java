@@ -69,20 +69,33 @@ public final class MainScreen implements Screen, Disposable
     }
     
     public boolean update(final MotionEvent event, final float x, final float y) throws Exception
+    {
+        return update(event.getAction(), x, y);
+    }
+    
+    /**
+     * Update the current screen based on a touch, called on the game thread
+     * @param action The action of the motion event
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     * @return true
+     * @throws Exception
+     */
+    public boolean update(final int action, final float x, final float y) throws Exception
     {
         switch (getState())
         {
             case Ready:
-                menuScreen.update(event, x, y);
+                menuScreen.update(action, x, y);
                 break;
                 
             case Running:
                 if (getGame() != null)
-                    getGame().updateMotionEvent(event, x, y);
+                    getGame().updateMotionEvent(action, x, y);
                 break;
                 
             case Paused:
-                this.pauseScreen.update(event, x, y);
+                this.pauseScreen.update(action, x, y);
                 break;
                 
             case GameOver:
@@ -126,14 +139,22 @@ public final class MainScreen implements Screen, Disposable
         return this.game;
     }
     
-    public void createGame(final Game.Mode mode)
+    /**
+     * Create a game on a board of the specified dimensions
+     * @param mode The mode of gameplay
+     * @param cols Columns
+     * @param rows Rows
+     * @param matchCount The number of consecutive matches to identify a winner
+     */
+    public void createGame(final Game.Mode mode, final int cols, final int rows, final int matchCount)
     {
         //if game doesn't exist
         if (getGame() == null)
             this.game = new Game(this);
         
-        //assign the game mode
-        getGame().getBoard().reset();
+        //assign the board and game mode
+        getGame().createBoard(cols, rows, matchCount);
+        getGame().reset();
         getGame().setMode(mode);
     }
     
@@ -150,6 +171,17 @@ public final class MainScreen implements Screen, Disposable
     public void setState(final State state)
     {
         this.state = state;
+        
+        //the new state needs to be drawn
+        requestFrame();
+    }
+    
+    /**
+     * Request the game to be updated and rendered, this can be called from any thread
+     */
+    public void requestFrame()
+    {
+        getPanel().requestFrame();
     }
     
     public void render(final Canvas canvas) throws Exception
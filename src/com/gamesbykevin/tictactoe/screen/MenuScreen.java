@@ -1,13 +1,20 @@
 package com.gamesbykevin.tictactoe.screen;
 
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
 import android.view.MotionEvent;
-import com.gamesbykevin.androidframework.awt.Button;
 import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.tictactoe.TicTacToe;
+import com.gamesbykevin.tictactoe.ai.AI;
 import com.gamesbykevin.tictactoe.assets.Assets;
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.BoardHelper;
 import com.gamesbykevin.tictactoe.game.Game;
+import com.gamesbykevin.tictactoe.panel.GamePanel;
 
 /**
  * Our main menu
@@ -15,8 +22,47 @@ import com.gamesbykevin.tictactoe.game.Game;
  */
 public class MenuScreen implements Screen, Disposable
 {
-    //the buttons in our menu
-    private Button exitGame, newGame1Player, newGame2Player, instructions, moreGames, rateGame;
+    //where the buttons in our menu are drawn, a button is selected by touching inside it
+    private Rect exitGame, newGame1Player, newGame2Player, instructions, moreGames, rateGame;
+    
+    /**
+     * The difficulties the cpu opponent can play at in a single player game
+     */
+    private static final AI.Difficulty[] DIFFICULTIES = { AI.Difficulty.Easy, AI.Difficulty.Hard, AI.Difficulty.MonteCarlo };
+    
+    /**
+     * The boards a game can be played on, each is columns, rows, and the number of consecutive matches to win
+     */
+    private static final int[][] BOARDS =
+    {
+        { Board.DEFAULT_BOARD_DIMENSION, Board.DEFAULT_BOARD_DIMENSION, BoardHelper.MATCH_COUNT },
+        { 4, 4, 3 },
+        { 5, 5, 4 },
+        { 7, 7, 5 },
+        { 9, 9, 5 },
+        { 15, 15, 5 },
+        { Board.MAX_BOARD_DIMENSION, Board.MAX_BOARD_DIMENSION, 5 }
+    };
+    
+    /**
+     * The height of each option below the buttons
+     */
+    private static final int OPTION_HEIGHT = 60;
+    
+    //the difficulty picked for a single player game
+    private int difficulty;
+    
+    //the board picked for a new game
+    private int board;
+    
+    //where the options are drawn, touching an option picks its next choice
+    private Rect difficultyOption, boardOption;
+    
+    //the text of each option, only built when the choice changes
+    private String difficultyText, boardText;
+    
+    //object to draw the options
+    private Paint paint;
     
     //our main screen reference
     private final MainScreen screen;
@@ -25,53 +71,54 @@ public class MenuScreen implements Screen, Disposable
     {
         this.screen = screen;
         
+        //start with the default difficulty
+        for (int i = 0; i < DIFFICULTIES.length; i++)
+        {
+            if (DIFFICULTIES[i] == Game.DEFAULT_DIFFICULTY)
+                this.difficulty = i;
+        }
+        
+        updateText();
+        
+        //the options take the rows below the buttons
+        this.difficultyOption = new Rect(0, GamePanel.HEIGHT - (OPTION_HEIGHT * 2), GamePanel.WIDTH, GamePanel.HEIGHT - OPTION_HEIGHT);
+        this.boardOption = new Rect(0, GamePanel.HEIGHT - OPTION_HEIGHT, GamePanel.WIDTH, GamePanel.HEIGHT);
+        
+        this.paint = new Paint();
+        this.paint.setColor(Color.WHITE);
+        this.paint.setTextSize(40f);
+        this.paint.setTextAlign(Paint.Align.CENTER);
+        this.paint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
+        
         //create our buttons
         if (this.newGame1Player == null)
         {
-            this.newGame1Player = new Button(Assets.getImage(Assets.ImageKey.Button_NewGame_1_Player));
-            this.newGame1Player.setX(180);
-            this.newGame1Player.setY(325);
-            this.newGame1Player.updateBounds();
+            this.newGame1Player = Assets.createBounds(Assets.ImageKey.Button_NewGame_1_Player, 180, 325);
         }
         
         if (this.newGame2Player == null)
         {
-            this.newGame2Player = new Button(Assets.getImage(Assets.ImageKey.Button_NewGame_2_Player));
-            this.newGame2Player.setX(180);
-            this.newGame2Player.setY(450);
-            this.newGame2Player.updateBounds();
+            this.newGame2Player = Assets.createBounds(Assets.ImageKey.Button_NewGame_2_Player, 180, 450);
         }
         
         if (this.exitGame == null)
         {
-            this.exitGame = new Button(Assets.getImage(Assets.ImageKey.Button_ExitGame));
-            this.exitGame.setX(180);
-            this.exitGame.setY(600);
-            this.exitGame.updateBounds();
+            this.exitGame = Assets.createBounds(Assets.ImageKey.Button_ExitGame, 180, 600);
         }
         
         if (this.instructions == null)
         {
-            this.instructions = new Button(Assets.getImage(Assets.ImageKey.Button_Instructions));
-            this.instructions.setX(180);
-            this.instructions.setY(725);
-            this.instructions.updateBounds();
+            this.instructions = Assets.createBounds(Assets.ImageKey.Button_Instructions, 180, 725);
         }
         
         if (this.moreGames == null)
         {
-            this.moreGames = new Button(Assets.getImage(Assets.ImageKey.Button_MoreGames));
-            this.moreGames.setX(180);
-            this.moreGames.setY(850);
-            this.moreGames.updateBounds();
+            this.moreGames = Assets.createBounds(Assets.ImageKey.Button_MoreGames, 180, 850);
         }
         
         if (this.rateGame == null)
         {
-            this.rateGame = new Button(Assets.getImage(Assets.ImageKey.Button_RateGame));
-            this.rateGame.setX(180);
-            this.rateGame.setY(975);
-            this.rateGame.updateBounds();
+            this.rateGame = Assets.createBounds(Assets.ImageKey.Button_RateGame, 180, 975);
         }
     }
     
@@ -80,46 +127,81 @@ public class MenuScreen implements Screen, Disposable
         
     }
     
+    /**
+     * Build the text of each option for the current choices
+     */
+    private void updateText()
+    {
+        this.difficultyText = "Cpu: " + DIFFICULTIES[difficulty];
+        this.boardText = "Board: " + BOARDS[board][0] + "x" + BOARDS[board][1] + ", " + BOARDS[board][2] + " in a row";
+    }
+    
     @Override
     public boolean update(final MotionEvent event, final float x, final float y) throws Exception
     {
-        if (event.getAction() == MotionEvent.ACTION_UP)
+        return update(event.getAction(), x, y);
+    }
+    
+    /**
+     * Update the menu based on a touch
+     * @param action The action of the motion event
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     * @return true
+     * @throws Exception
+     */
+    public boolean update(final int action, final float x, final float y) throws Exception
+    {
+        if (action == MotionEvent.ACTION_UP)
         {
-            if (exitGame.contains(x, y))
+            if (exitGame.contains((int)x, (int)y))
             {
                 screen.getPanel().getActivity().finish();
             }
-            else if (newGame1Player.contains(x, y))
+            else if (newGame1Player.contains((int)x, (int)y))
             {
                 //set the state to running
                 screen.setState(MainScreen.State.Running);
 
                 //create the game
-                screen.createGame(Game.Mode.SinglePlayer);
+                screen.createGame(Game.Mode.SinglePlayer, BOARDS[board][0], BOARDS[board][1], BOARDS[board][2]);
+                screen.getGame().setDifficulty(DIFFICULTIES[difficulty]);
             }
-            else if (newGame2Player.contains(x, y))
+            else if (newGame2Player.contains((int)x, (int)y))
             {
                 //set the state to running
                 screen.setState(MainScreen.State.Running);
 
                 //create the game
-                screen.createGame(Game.Mode.MultiPlayer);
+                screen.createGame(Game.Mode.MultiPlayer, BOARDS[board][0], BOARDS[board][1], BOARDS[board][2]);
             }
-            else if (moreGames.contains(x, y))
+            else if (moreGames.contains((int)x, (int)y))
             {
                 //open web page
                 screen.getPanel().getActivity().openWebpage(TicTacToe.WEBPAGE_URL);
             }
-            else if (instructions.contains(x, y))
+            else if (instructions.contains((int)x, (int)y))
             {
                 //open web page
                 screen.getPanel().getActivity().openWebpage(TicTacToe.INSTRUCTIONS_URL);
             }
-            else if (rateGame.contains(x, y))
+            else if (rateGame.contains((int)x, (int)y))
             {
                 //open web page
                 screen.getPanel().getActivity().openWebpage(TicTacToe.APP_URL);
             }
+            else if (difficultyOption.contains((int)x, (int)y))
+            {
+                //pick the next difficulty
+                this.difficulty = (difficulty + 1) % DIFFICULTIES.length;
+                updateText();
+            }
+            else if (boardOption.contains((int)x, (int)y))
+            {
+                //pick the next board
+                this.board = (board + 1) % BOARDS.length;
+                updateText();
+            }
         }
         
         //return true
@@ -135,16 +217,19 @@ public class MenuScreen implements Screen, Disposable
     @Override
     public void render(final Canvas canvas) throws Exception
     {
-        if (Assets.getImage(Assets.ImageKey.Title) != null)
-            canvas.drawBitmap(Assets.getImage(Assets.ImageKey.Title), 70, 150, null);
+        Assets.drawImage(canvas, Assets.ImageKey.Title, 70, 150, null);
+        
+        //draw the menu buttons from the atlas
+        Assets.drawImage(canvas, Assets.ImageKey.Button_NewGame_1_Player, newGame1Player, null);
+        Assets.drawImage(canvas, Assets.ImageKey.Button_NewGame_2_Player, newGame2Player, null);
+        Assets.drawImage(canvas, Assets.ImageKey.Button_ExitGame, exitGame, null);
+        Assets.drawImage(canvas, Assets.ImageKey.Button_Instructions, instructions, null);
+        Assets.drawImage(canvas, Assets.ImageKey.Button_MoreGames, moreGames, null);
+        Assets.drawImage(canvas, Assets.ImageKey.Button_RateGame, rateGame, null);
         
-        //draw the menu buttons
-        newGame1Player.render(canvas);
-        newGame2Player.render(canvas);
-        exitGame.render(canvas);
-        instructions.render(canvas);
-        moreGames.render(canvas);
-        rateGame.render(canvas);
+        //draw the options centered in their rows
+        canvas.drawText(difficultyText, difficultyOption.centerX(), difficultyOption.bottom - (OPTION_HEIGHT / 4), paint);
+        canvas.drawText(boardText, boardOption.centerX(), boardOption.bottom - (OPTION_HEIGHT / 4), paint);
     }
     
     @Override
@@ -156,5 +241,8 @@ public class MenuScreen implements Screen, Disposable
         this.instructions = null;
         this.moreGames = null;
         this.rateGame = null;
+        this.difficultyOption = null;
+        this.boardOption = null;
+        this.paint = null;
     }
 }
\ No newline at end of file
@@ -6,8 +6,8 @@
 package com.gamesbykevin.tictactoe.screen;
 
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.view.MotionEvent;
-import com.gamesbykevin.androidframework.awt.Button;
 import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.androidframework.screen.Screen;
 import com.gamesbykevin.tictactoe.assets.Assets;
@@ -21,8 +21,8 @@ public class PauseScreen implements Screen, Disposable
     //our main screen reference
     private final MainScreen screen;
     
-    //the buttons on this screen
-    private Button resumeGame;
+    //where the buttons on this screen are drawn
+    private Rect resumeGame;
     
     public PauseScreen(final MainScreen screen)
     {
@@ -30,17 +30,26 @@ public class PauseScreen implements Screen, Disposable
         this.screen = screen;
         
         //create the resume game button
-        this.resumeGame = new Button(Assets.getImage(Assets.ImageKey.Button_ResumeGame));
-        
-        //set position
-        this.resumeGame.setX(180);
-        this.resumeGame.setY(555);
+        this.resumeGame = Assets.createBounds(Assets.ImageKey.Button_ResumeGame, 180, 555);
     }
     
     @Override
     public boolean update(final MotionEvent event, final float x, final float y) throws Exception
     {
-        if (event.getAction() == MotionEvent.ACTION_UP)
+        return update(event.getAction(), x, y);
+    }
+    
+    /**
+     * Update the pause screen based on a touch
+     * @param action The action of the motion event
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     * @return true
+     * @throws Exception
+     */
+    public boolean update(final int action, final float x, final float y) throws Exception
+    {
+        if (action == MotionEvent.ACTION_UP)
         {
             if (screen.getGame() == null)
             {
@@ -80,13 +89,12 @@ public class PauseScreen implements Screen, Disposable
     public void render(final Canvas canvas) throws Exception
     {
         //resume button
-        this.resumeGame.render(canvas);
+        Assets.drawImage(canvas, Assets.ImageKey.Button_ResumeGame, resumeGame, null);
     }
     
     @Override
     public void dispose()
     {
-        if (this.resumeGame != null)
-            this.resumeGame.dispose();
+        this.resumeGame = null;
     }
 }
\ No newline at end of file
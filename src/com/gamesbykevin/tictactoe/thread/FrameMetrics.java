@@ -0,0 +1,188 @@
+package com.gamesbykevin.tictactoe.thread;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * The times of each frame of the game loop and of each cpu move.<br>
+ * Nothing is recorded until enabled, and recording only counts the time in a histogram,
+ * so it can be left on while playing on a real device and reported when done.
+ * @author ABRAHAM
+ */
+public final class FrameMetrics
+{
+    /**
+     * The name of the metrics in logcat
+     */
+    public static final String TAG = "FrameMetrics";
+    
+    //the time of the whole frame, and each part of it
+    private final LatencyHistogram frame = new LatencyHistogram();
+    private final LatencyHistogram update = new LatencyHistogram();
+    private final LatencyHistogram draw = new LatencyHistogram();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    
+    //how much longer the loop slept than requested
+    private final LatencyHistogram sleepOvershoot = new LatencyHistogram();
+    
+    //the time from requesting a cpu move until it is played
+    private final LatencyHistogram aiMove = new LatencyHistogram();
+    
+    //the number of frames that took longer than the frame budget
+    private volatile long droppedFrames;
+    
+    //the number of update steps skipped because the game loop was too far behind to catch up
+    private volatile long skippedUpdates;
+    
+    //are times being recorded
+    private volatile boolean enabled = false;
+    
+    /**
+     * Start or stop recording, the times already recorded are kept
+     * @param enabled true = record, false = don't record
+     */
+    public void setEnabled(final boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+    
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+    
+    /**
+     * Record the times of a frame
+     * @param lockWait The time (nanoseconds) waiting to lock the canvas
+     * @param update The time (nanoseconds) updating the game
+     * @param draw The time (nanoseconds) drawing the game and posting the canvas
+     * @param frameBudget The time (nanoseconds) the frame can take before it is dropped
+     */
+    public void recordFrame(final long lockWait, final long update, final long draw, final long frameBudget)
+    {
+        if (!isEnabled())
+            return;
+        
+        final long total = lockWait + update + draw;
+        
+        this.frame.record(total);
+        this.lockWait.record(lockWait);
+        this.update.record(update);
+        this.draw.record(draw);
+        
+        if (total > frameBudget)
+            this.droppedFrames++;
+    }
+    
+    /**
+     * Record how much longer the loop slept than requested
+     * @param overshoot The time (nanoseconds)
+     */
+    public void recordSleepOvershoot(final long overshoot)
+    {
+        if (isEnabled())
+            this.sleepOvershoot.record(overshoot);
+    }
+    
+    /**
+     * Record update steps that were skipped, since catching up would take too many steps in one frame
+     * @param steps The number of steps skipped
+     */
+    public void recordSkippedUpdates(final long steps)
+    {
+        if (isEnabled())
+            this.skippedUpdates += steps;
+    }
+    
+    /**
+     * Record the time a cpu move took
+     * @param latency The time (nanoseconds) from requesting the move until it is played
+     */
+    public void recordAiMove(final long latency)
+    {
+        if (isEnabled())
+            this.aiMove.record(latency);
+    }
+    
+    public long getDroppedFrames()
+    {
+        return this.droppedFrames;
+    }
+    
+    public long getSkippedUpdates()
+    {
+        return this.skippedUpdates;
+    }
+    
+    /**
+     * Remove every recorded time
+     */
+    public void reset()
+    {
+        frame.reset();
+        update.reset();
+        draw.reset();
+        lockWait.reset();
+        sleepOvershoot.reset();
+        aiMove.reset();
+        
+        this.droppedFrames = 0;
+        this.skippedUpdates = 0;
+    }
+    
+    /**
+     * Get a line of the report
+     * @param name The name of the times
+     * @param histogram The recorded times
+     * @return The count, p50, p99, p99.9 and max (milliseconds) of the times
+     */
+    private static String getLine(final String name, final LatencyHistogram histogram)
+    {
+        return String.format(Locale.US, "%-16s %8d %9.3f %9.3f %9.3f %9.3f", name, histogram.getCount(),
+            histogram.getPercentile(50) / 1000000.0, histogram.getPercentile(99) / 1000000.0,
+            histogram.getPercentile(99.9) / 1000000.0, histogram.getMax() / 1000000.0);
+    }
+    
+    /**
+     * Get the report of the recorded times
+     * @return The percentiles (milliseconds) of each time and the number of dropped frames and skipped updates, one line each
+     */
+    public String getReport()
+    {
+        final StringBuilder report = new StringBuilder();
+        
+        report.append(String.format(Locale.US, "%-16s %8s %9s %9s %9s %9s", "(ms)", "count", "p50", "p99", "p99.9", "max")).append('\n');
+        report.append(getLine("frame", frame)).append('\n');
+        report.append(getLine("update", update)).append('\n');
+        report.append(getLine("draw", draw)).append('\n');
+        report.append(getLine("lock wait", lockWait)).append('\n');
+        report.append(getLine("sleep overshoot", sleepOvershoot)).append('\n');
+        report.append(getLine("ai move", aiMove)).append('\n');
+        report.append("dropped frames   ").append(getDroppedFrames()).append('\n');
+        report.append("skipped updates  ").append(getSkippedUpdates()).append('\n');
+        
+        return report.toString();
+    }
+    
+    /**
+     * Write the report to a file, replacing it if it exists
+     * @param file The file we want to write the report to
+     * @throws IOException If the file can't be written
+     */
+    public void write(final File file) throws IOException
+    {
+        final Writer writer = new FileWriter(file);
+        
+        try
+        {
+            writer.write(getReport());
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.gamesbykevin.tictactoe.thread;
+
+/**
+ * Counts times (nanoseconds) in buckets that grow with the time, so percentiles can be reported without keeping every time.<br>
+ * Each power of 2 is split into 32 buckets, so a reported time is within about 3% of the recorded time,
+ * and nothing is allocated after the histogram is created.
+ * @author ABRAHAM
+ */
+public final class LatencyHistogram
+{
+    //the number of bits used to split each power of 2
+    private static final int SUB_BUCKET_BITS = 5;
+    
+    //the number of buckets for each power of 2
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    
+    /**
+     * The largest time (nanoseconds) counted, longer times are counted as this (about 68 seconds)
+     */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+    
+    //the count of each bucket
+    private final long[] counts = new long[getIndex(MAX_VALUE) + 1];
+    
+    //the number of times recorded, and the longest time
+    private long count, max;
+    
+    /**
+     * Get the bucket of a time
+     * @param value The time (nanoseconds), not negative
+     * @return The index of the bucket
+     */
+    private static int getIndex(final long value)
+    {
+        //small times have a bucket each
+        if (value < 2 * SUB_BUCKETS)
+            return (int)value;
+        
+        //larger times share a bucket with the times that have the same highest bits
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift * SUB_BUCKETS) + (int)(value >>> shift);
+    }
+    
+    /**
+     * Get the largest time counted by a bucket
+     * @param index The index of the bucket
+     * @return The time (nanoseconds)
+     */
+    private static long getValue(final int index)
+    {
+        if (index < 2 * SUB_BUCKETS)
+            return index;
+        
+        final int shift = (index / SUB_BUCKETS) - 1;
+        return ((long)(index - (shift * SUB_BUCKETS) + 1) << shift) - 1;
+    }
+    
+    /**
+     * Count a time
+     * @param nanoseconds The time, negative times are counted as 0
+     */
+    public synchronized void record(final long nanoseconds)
+    {
+        final long value = Math.min(Math.max(nanoseconds, 0), MAX_VALUE);
+        
+        this.counts[getIndex(value)]++;
+        this.count++;
+        
+        if (value > max)
+            this.max = value;
+    }
+    
+    /**
+     * Get the number of times recorded
+     * @return The number of times
+     */
+    public synchronized long getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Get the longest time recorded
+     * @return The time (nanoseconds), 0 if none were recorded
+     */
+    public synchronized long getMax()
+    {
+        return this.max;
+    }
+    
+    /**
+     * Get the time that a percentage of the recorded times are at or below
+     * @param percentile The percentage from 0 to 100, e.g. 99.9
+     * @return The time (nanoseconds), 0 if none were recorded
+     */
+    public synchronized long getPercentile(final double percentile)
+    {
+        if (count == 0)
+            return 0;
+        
+        //the number of times at or below the result
+        final long target = Math.max(1, (long)Math.ceil(count * (percentile / 100.0)));
+        
+        long total = 0;
+        
+        for (int index = 0; index < counts.length; index++)
+        {
+            total += counts[index];
+            
+            //the bucket can count times longer than the longest time recorded
+            if (total >= target)
+                return Math.min(getValue(index), max);
+        }
+        
+        return this.max;
+    }
+    
+    /**
+     * Remove every recorded time
+     */
+    public synchronized void reset()
+    {
+        for (int index = 0; index < counts.length; index++)
+        {
+            this.counts[index] = 0;
+        }
+        
+        this.count = 0;
+        this.max = 0;
+    }
+}
\ No newline at end of file
@@ -4,21 +4,50 @@ import android.graphics.Canvas;
 import android.view.SurfaceHolder;
 import com.gamesbykevin.androidframework.anim.Animation;
 
+import java.util.concurrent.locks.LockSupport;
+
 import com.gamesbykevin.tictactoe.panel.GamePanel;
 
 /**
- * Our main thread containing the game loop
+ * Our main thread containing the game loop.<br>
+ * In on demand mode the loop waits until a frame is requested (a touch, a cpu move, a state change, etc...)
+ * and only then updates and renders, so nothing is done while the screen doesn't change.
+ * Frames are never rendered faster than the target fps.<br>
+ * The game is updated in fixed steps of time separate from rendering, a slow frame is caught up
+ * with extra steps on the next frame, up to a limit.
  * @author ABRAHAM
  */
 public class MainThread extends Thread
 {
     /**
-     * Is debug mode enabled?
+     * Is debug mode enabled? The frame metrics are recorded from the start in debug mode
      */
     public static final boolean DEBUG = false;
     
-    //the assigned fps for this game
-    private static final int FPS = 30;
+    /**
+     * The times of each frame and cpu move, only recorded once enabled
+     */
+    public static final FrameMetrics METRICS = new FrameMetrics();
+    
+    /**
+     * The most frames rendered per second by default
+     */
+    public static final int DEFAULT_TARGET_FPS = 30;
+    
+    /**
+     * The number of times the game is updated each second by default
+     */
+    public static final int DEFAULT_UPDATE_RATE = 30;
+    
+    /**
+     * The most update steps made in a single frame to catch up after a slow frame, the rest are skipped
+     */
+    public static final int MAX_CATCH_UP_STEPS = 5;
+    
+    /**
+     * The time (milliseconds) an update and render can take by default, one frame at the default fps
+     */
+    public static final long DEFAULT_FRAME_BUDGET = Animation.MILLISECONDS_PER_SECOND / DEFAULT_TARGET_FPS;
     
     //our game panel
     private final GamePanel panel;
@@ -27,7 +56,25 @@ public class MainThread extends Thread
     private final SurfaceHolder holder;
     
     //is the thread running
-    private boolean running;
+    private volatile boolean running;
+    
+    //do we only render when a frame is requested, else we render at the target fps
+    private volatile boolean onDemand = true;
+    
+    //the most frames rendered per second
+    private volatile int targetFps = DEFAULT_TARGET_FPS;
+    
+    //the number of times the game is updated each second
+    private volatile int updateRate = DEFAULT_UPDATE_RATE;
+    
+    //the time (milliseconds) an update and render can take before the frame is dropped
+    private volatile long frameBudget = DEFAULT_FRAME_BUDGET;
+    
+    //has a frame been requested since the last one was rendered, guarded by the lock
+    private boolean frameRequested = true;
+    
+    //the loop waits on this until a frame is requested
+    private final Object lock = new Object();
     
     //our canvas to render image(s)
     public static Canvas canvas;
@@ -45,27 +92,153 @@ public class MainThread extends Thread
         //assign the necessary references
         this.holder = holder;
         this.panel = panel;
+        
+        if (DEBUG)
+            METRICS.setEnabled(true);
+    }
+    
+    /**
+     * Request a frame, the loop will update and render as soon as the target fps allows.<br>
+     * This can be called from any thread.
+     */
+    public void requestFrame()
+    {
+        synchronized (lock)
+        {
+            this.frameRequested = true;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Wait until a frame is requested or the thread is no longer running
+     * @return true if the thread had to wait, false if a frame was already requested
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    private boolean awaitFrame() throws InterruptedException
+    {
+        synchronized (lock)
+        {
+            final boolean waited = !frameRequested;
+            
+            while (!frameRequested && isRunning())
+            {
+                lock.wait();
+            }
+            
+            this.frameRequested = false;
+            return waited;
+        }
+    }
+    
+    /**
+     * Assign the rendering mode
+     * @param onDemand true = only render when a frame is requested, false = render at the target fps
+     */
+    public void setOnDemand(final boolean onDemand)
+    {
+        this.onDemand = onDemand;
+        
+        //wake the loop in case it is waiting
+        requestFrame();
+    }
+    
+    public boolean isOnDemand()
+    {
+        return this.onDemand;
+    }
+    
+    /**
+     * Assign the most frames rendered per second
+     * @param targetFps The frames per second, at least 1
+     */
+    public void setTargetFps(final int targetFps)
+    {
+        if (targetFps < 1)
+            throw new IllegalArgumentException("Target fps must be at least 1: " + targetFps);
+        
+        this.targetFps = targetFps;
+    }
+    
+    public int getTargetFps()
+    {
+        return this.targetFps;
+    }
+    
+    /**
+     * Assign the number of times the game is updated each second.<br>
+     * The game is updated in fixed steps of time whatever the fps, so it plays at the same speed on a slow device.
+     * @param updateRate The updates per second, at least 1
+     */
+    public void setUpdateRate(final int updateRate)
+    {
+        if (updateRate < 1)
+            throw new IllegalArgumentException("Update rate must be at least 1: " + updateRate);
+        
+        this.updateRate = updateRate;
+    }
+    
+    public int getUpdateRate()
+    {
+        return this.updateRate;
+    }
+    
+    /**
+     * Assign the time an update and render can take, frames that take longer are counted as dropped
+     * @param frameBudget The time (milliseconds) for each frame
+     */
+    public void setFrameBudget(final long frameBudget)
+    {
+        this.frameBudget = frameBudget;
+    }
+    
+    public long getFrameBudget()
+    {
+        return this.frameBudget;
     }
     
     @Override
     public void run()
     {
-        //track total time elapsed to calculate fps
-        long totalTime = 0;
+        //the time the previous frame started, and the time not yet used by an update step
+        long previousTime = System.nanoTime();
+        long accumulator = 0;
         
-        //the frame count
-        int frames = 0;
-        
-        //the expected amount of time per each update
-        final long targetTime = (Animation.MILLISECONDS_PER_SECOND / FPS);
+        //the time the next frame can start
+        long nextFrameTime = previousTime;
         
         try
         {
             //continue to loop while the thread is running
             while (isRunning())
             {
-                //get the start time of this update
+                //nothing to do until a frame is requested
+                final boolean waited = isOnDemand() && awaitFrame();
+                
+                if (!isRunning())
+                    break;
+                
+                //the time at the start of each part of the frame
                 final long startTime = System.nanoTime();
+                long lockedTime = startTime, updatedTime = startTime;
+                
+                final long stepTime = Animation.NANO_SECONDS_PER_SECOND / getUpdateRate();
+                
+                if (waited)
+                {
+                    //the time spent waiting for a request isn't played, the request gets a single update step
+                    accumulator = stepTime;
+                    nextFrameTime = startTime;
+                }
+                else
+                {
+                    accumulator += startTime - previousTime;
+                }
+                
+                previousTime = startTime;
+                
+                //the number of update steps made this frame
+                int steps = 0;
 
                 //assign the canvas null
                 canvas = null;
@@ -74,12 +247,21 @@ public class MainThread extends Thread
                 {
                     //attempt to lock the canvas to edit the pixels of the surface
                     canvas = holder.lockCanvas();
+                    lockedTime = System.nanoTime();
+                    updatedTime = lockedTime;
 
                     //make sure no other threads are accessing the holder
                     synchronized (holder)
                     {
-                        //update our game panel
-                        this.panel.update();
+                        //update our game panel once for each step of time passed, catching up after a slow frame
+                        while (accumulator >= stepTime && steps < MAX_CATCH_UP_STEPS)
+                        {
+                            this.panel.update();
+                            accumulator -= stepTime;
+                            steps++;
+                        }
+                        
+                        updatedTime = System.nanoTime();
 
                         //if the canvas object was obtained, render
                         if (canvas != null)
@@ -106,50 +288,32 @@ public class MainThread extends Thread
                         }
                     }
                 }
-
-                //calculate the number of milliseconds elapsed
-                final long timeMillis = (System.nanoTime() - startTime) / Animation.NANO_SECONDS_PER_MILLISECOND;
-
-                //determine the amount of time to sleep
-                long waitTime = targetTime - timeMillis;
-
-                //make sure the wait time is at least 1 millisecond
-                if (waitTime < 1)
-                    waitTime = 1;
                 
-                try
+                //too far behind to catch up, the steps left are skipped
+                if (accumulator >= stepTime)
                 {
-                    //sleep the thread
-                    sleep(waitTime);
+                    METRICS.recordSkippedUpdates(accumulator / stepTime);
+                    accumulator %= stepTime;
                 }
-                catch (Exception e)
-                {
-                    e.printStackTrace();
-                }
-
-                //if we are debugging, print the fps
-                if (DEBUG)
-                {
-                    //calculate the total time passed
-                    totalTime += System.nanoTime() - startTime;
-
-                    //increase the frame count
-                    frames++;
-
-                    //if the frame count = the assigned fps
-                    if (frames == FPS)
-                    {
-                        //calculate the average fps
-                        final double fpsAverage = (double)Animation.MILLISECONDS_PER_SECOND / ((double)(totalTime / frames) / Animation.NANO_SECONDS_PER_MILLISECOND);
+                
+                //the request wasn't updated yet, so keep it for the next frame
+                if (isOnDemand() && steps == 0)
+                    requestFrame();
 
-                        //reset these values
-                        frames = 0;
-                        totalTime = 0;
+                final long endTime = System.nanoTime();
+                
+                //drawing includes posting the canvas to the screen
+                METRICS.recordFrame(lockedTime - startTime, updatedTime - lockedTime, endTime - updatedTime, getFrameBudget() * Animation.NANO_SECONDS_PER_MILLISECOND);
 
-                        //display the average
-                        System.out.println("Average FPS " + fpsAverage);
-                    }
-                }
+                //don't start the next frame before the target fps allows
+                final long frameTime = Animation.NANO_SECONDS_PER_SECOND / getTargetFps();
+                nextFrameTime += frameTime;
+                
+                //if more than a frame behind start again from now, rather than rendering frames back to back
+                if (nextFrameTime < endTime - frameTime)
+                    nextFrameTime = endTime;
+                
+                waitUntil(nextFrameTime);
             }
         }
         catch (Exception ex)
@@ -161,6 +325,34 @@ public class MainThread extends Thread
         this.setRunning(false);
     }
     
+    /**
+     * Sleep until the time is reached.<br>
+     * The time is checked with the nano time clock, so the pace doesn't drift with the granularity of sleep.
+     * @param time The time (nanoseconds) to wake
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    private void waitUntil(final long time) throws InterruptedException
+    {
+        long remaining = time - System.nanoTime();
+        
+        if (remaining <= 0)
+            return;
+        
+        while (remaining > 0)
+        {
+            LockSupport.parkNanos(remaining);
+            
+            //park returns right away while interrupted, so stop the same way as waiting for a frame does
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            
+            remaining = time - System.nanoTime();
+        }
+        
+        //the thread can wake later than requested
+        METRICS.recordSleepOvershoot(-remaining);
+    }
+    
     /**
      * Assign the thread to run.
      * @param running true the thread will continue to loop, false the thread will finish
@@ -168,6 +360,9 @@ public class MainThread extends Thread
     public void setRunning(final boolean running)
     {
         this.running = running;
+        
+        //wake the loop so it can finish
+        requestFrame();
     }
     
     /**
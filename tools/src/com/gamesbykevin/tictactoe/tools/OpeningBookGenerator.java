@@ -0,0 +1,139 @@
+package com.gamesbykevin.tictactoe.tools;
+
+import com.gamesbykevin.tictactoe.ai.OpeningBook;
+import com.gamesbykevin.tictactoe.board.Board;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Solves every reachable position on the default board and writes the opening book.<br>
+ * Both X and O are solved as the first player, since either can start a game.
+ * @author ABRAHAM
+ */
+public final class OpeningBookGenerator
+{
+    /**
+     * Where the opening book is written if no path is provided
+     */
+    public static final String DEFAULT_OUTPUT = "res/raw/opening_book.bin";
+    
+    //the best move for each entry
+    private final byte[] moves = new byte[OpeningBook.SIZE];
+    
+    //the score of each entry from the point of view of the player to move
+    private final int[] scores = new int[OpeningBook.SIZE];
+    
+    //has the entry been solved
+    private final boolean[] solved = new boolean[OpeningBook.SIZE];
+    
+    //the number of positions solved
+    private int count = 0;
+    
+    private OpeningBookGenerator()
+    {
+        for (int i = 0; i < moves.length; i++)
+        {
+            this.moves[i] = (byte)OpeningBook.NONE;
+        }
+    }
+    
+    /**
+     * Solve the position
+     * @param board The board containing the position
+     * @param key The key of the player to move
+     * @param opponentKey The key of the opponent
+     * @return The score from the point of view of the player to move, quicker wins score higher
+     */
+    private int solve(final Board board, final int key, final int opponentKey)
+    {
+        final int index = OpeningBook.getIndex(board, key);
+        
+        //each position only has to be solved once
+        if (solved[index])
+            return scores[index];
+        
+        int best = Integer.MIN_VALUE;
+        int bestMove = OpeningBook.NONE;
+        
+        for (int move = 0; move < OpeningBook.DIMENSION * OpeningBook.DIMENSION; move++)
+        {
+            final int col = move % OpeningBook.DIMENSION;
+            final int row = move / OpeningBook.DIMENSION;
+            
+            //only empty places
+            if (board.getKey(col, row) != Board.KEY_EMPTY)
+                continue;
+            
+            board.setKey(col, row, key);
+            
+            final int score;
+            
+            if (board.hasMatch(col, row))
+            {
+                //a win with more empty places left is quicker
+                score = board.getEmptyCount() + 1;
+            }
+            else if (board.getEmptyCount() == 0)
+            {
+                //tie game
+                score = 0;
+            }
+            else
+            {
+                score = -solve(board, opponentKey, key);
+            }
+            
+            board.setKey(col, row, Board.KEY_EMPTY);
+            
+            if (score > best)
+            {
+                best = score;
+                bestMove = move;
+            }
+        }
+        
+        this.solved[index] = true;
+        this.scores[index] = best;
+        this.moves[index] = (byte)bestMove;
+        this.count++;
+        
+        return best;
+    }
+    
+    /**
+     * Solve the board and write the opening book
+     * @param args The path of the file to write (optional)
+     * @throws IOException If the file can't be written
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        final String path = (args.length > 0) ? args[0] : DEFAULT_OUTPUT;
+        
+        final OpeningBookGenerator generator = new OpeningBookGenerator();
+        
+        final Board board = new Board();
+        
+        if (!OpeningBook.supports(board))
+            throw new IllegalStateException("The default board does not match the opening book dimensions");
+        
+        //either player can go first
+        generator.solve(board, Board.KEY_X, Board.KEY_O);
+        generator.solve(board, Board.KEY_O, Board.KEY_X);
+        
+        final OutputStream stream = new BufferedOutputStream(new FileOutputStream(path));
+        
+        try
+        {
+            new OpeningBook(generator.moves).write(stream);
+        }
+        finally
+        {
+            stream.close();
+        }
+        
+        System.out.println("Solved " + generator.count + " positions, wrote " + path);
+    }
+}
\ No newline at end of file
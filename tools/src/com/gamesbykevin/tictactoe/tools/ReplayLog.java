@@ -0,0 +1,143 @@
+package com.gamesbykevin.tictactoe.tools;
+
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.game.MoveLog;
+import com.gamesbykevin.tictactoe.game.Replay;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * Replays the move logs in a file without running the ai.<br>
+ * Without a game number every game is replayed to the end and the results are reported,
+ * with a game number the board of that game is printed after the requested number of moves.
+ * @author ABRAHAM
+ */
+public final class ReplayLog
+{
+    private ReplayLog()
+    {
+        //only used from the command line
+    }
+    
+    /**
+     * Print the board as text
+     * @param board The board we want to print
+     */
+    private static void print(final Board board)
+    {
+        for (int row = 0; row < board.getRows(); row++)
+        {
+            final StringBuilder line = new StringBuilder();
+            
+            for (int col = 0; col < board.getCols(); col++)
+            {
+                switch (board.getKey(col, row))
+                {
+                    case Board.KEY_X:
+                        line.append('X');
+                        break;
+                    
+                    case Board.KEY_O:
+                        line.append('O');
+                        break;
+                    
+                    default:
+                        line.append('.');
+                        break;
+                }
+            }
+            
+            System.out.println(line);
+        }
+    }
+    
+    /**
+     * Replay the logs
+     * @param args The file containing the move logs, the number of the game to print (from 0, in the order the games are in the file)
+     * and the number of moves to play before printing (every move if not provided).
+     * @throws Exception If the file can't be read or a move can't be played
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.out.println("Usage: ReplayLog file [game] [ply]");
+            return;
+        }
+        
+        final int selected = (args.length > 1) ? Integer.parseInt(args[1]) : -1;
+        
+        final InputStream input = new BufferedInputStream(new FileInputStream(args[0]));
+        
+        int games = 0, moves = 0, winsX = 0, winsO = 0, ties = 0;
+        
+        final long start = System.nanoTime();
+        
+        try
+        {
+            MoveLog log;
+            
+            while ((log = MoveLog.read(input)) != null)
+            {
+                final int game = games++;
+                
+                //only replay the selected game if there is one
+                if (selected >= 0 && game != selected)
+                    continue;
+                
+                final Replay replay = new Replay(log);
+                
+                if (selected >= 0)
+                {
+                    replay.seek((args.length > 2) ? Integer.parseInt(args[2]) : log.getMoveCount());
+                    
+                    System.out.println("Game " + game + " on " + log.getCols() + "x" + log.getRows() + " with " + log.getMatchCount() + " in a row, seed " + log.getSeed());
+                    System.out.println("Move " + replay.getPly() + " of " + log.getMoveCount());
+                    print(replay.getBoard());
+                    return;
+                }
+                
+                replay.end();
+                moves += replay.getPly();
+                
+                if (!replay.getBoard().hasGameover())
+                    continue;
+                
+                switch (replay.getBoard().getWinningKey())
+                {
+                    case Board.KEY_X:
+                        winsX++;
+                        break;
+                    
+                    case Board.KEY_O:
+                        winsO++;
+                        break;
+                    
+                    default:
+                        ties++;
+                        break;
+                }
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+        
+        if (selected >= 0)
+        {
+            System.out.println("The file only has " + games + " games");
+            return;
+        }
+        
+        final double seconds = (System.nanoTime() - start) / 1000000000.0;
+        
+        System.out.println(games + " games, " + moves + " moves");
+        System.out.println("X wins: " + winsX);
+        System.out.println("O wins: " + winsO);
+        System.out.println("Ties: " + ties);
+        System.out.println(String.format("%.3f", seconds) + " seconds, " + String.format("%.0f", games / seconds) + " games/second");
+    }
+}
\ No newline at end of file
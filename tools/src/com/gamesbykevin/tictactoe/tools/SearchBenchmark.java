@@ -0,0 +1,107 @@
+package com.gamesbykevin.tictactoe.tools;
+
+import com.gamesbykevin.tictactoe.ai.MonteCarlo;
+import com.gamesbykevin.tictactoe.ai.ParallelSearch;
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.BoardHelper;
+
+/**
+ * Measures how many positions per second the parallel search visits for each number of threads,
+ * and how many playouts per second the monte carlo tree search runs.<br>
+ * The transposition table is cleared before every search so each run does the same work.
+ * @author ABRAHAM
+ */
+public final class SearchBenchmark
+{
+    /**
+     * The time (milliseconds) each search can take
+     */
+    public static final long TIME_BUDGET = 1000;
+    
+    /**
+     * The number of searches for each number of threads
+     */
+    public static final int ROUNDS = 10;
+    
+    private SearchBenchmark()
+    {
+        //this class is not meant to be created
+    }
+    
+    /**
+     * Run the benchmark
+     * @param args The maximum number of threads (default is one per core),
+     * the columns, rows and match count of the board (default is the default board). All are optional.
+     */
+    public static void main(final String[] args)
+    {
+        final int maxThreads = (args.length > 0) ? Integer.parseInt(args[0]) : ParallelSearch.DEFAULT_THREADS;
+        final int cols = (args.length > 1) ? Integer.parseInt(args[1]) : Board.DEFAULT_BOARD_DIMENSION;
+        final int rows = (args.length > 2) ? Integer.parseInt(args[2]) : cols;
+        final int matchCount = (args.length > 3) ? Integer.parseInt(args[3]) : BoardHelper.MATCH_COUNT;
+        
+        final Board board = new Board(cols, rows, matchCount);
+        
+        System.out.println("Board " + board.getCols() + "x" + board.getRows() + ", " + board.getMatchCount() + " in a row, " + ROUNDS + " rounds");
+        System.out.println("threads, nodes, seconds, nodes/second, speedup");
+        
+        double baseline = 0;
+        
+        for (int threads = 1; threads <= maxThreads; threads++)
+        {
+            final ParallelSearch search = new ParallelSearch(TIME_BUDGET, threads);
+            
+            long nodes = 0;
+            long elapsed = 0;
+            
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                //start every search from nothing
+                search.clear();
+                
+                final long start = System.nanoTime();
+                search.search(board, Board.KEY_X, Board.KEY_O);
+                elapsed += System.nanoTime() - start;
+                nodes += search.getNodes();
+            }
+            
+            search.shutdown();
+            
+            final double seconds = elapsed / 1000000000.0;
+            final double rate = nodes / seconds;
+            
+            if (threads == 1)
+                baseline = rate;
+            
+            System.out.println(threads + ", " + nodes + ", " + String.format("%.3f", seconds) + ", " + String.format("%.0f", rate) + ", " + String.format("%.2f", rate / baseline));
+        }
+        
+        System.out.println("threads, playouts, seconds, playouts/second, speedup");
+        
+        for (int threads = 1; threads <= maxThreads; threads++)
+        {
+            final MonteCarlo search = new MonteCarlo(TIME_BUDGET, MonteCarlo.UNLIMITED, threads);
+            
+            long playouts = 0;
+            long elapsed = 0;
+            
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                final long start = System.nanoTime();
+                search.search(board, Board.KEY_X, Board.KEY_O);
+                elapsed += System.nanoTime() - start;
+                playouts += search.getPlayouts();
+            }
+            
+            search.shutdown();
+            
+            final double seconds = elapsed / 1000000000.0;
+            final double rate = playouts / seconds;
+            
+            if (threads == 1)
+                baseline = rate;
+            
+            System.out.println(threads + ", " + playouts + ", " + String.format("%.3f", seconds) + ", " + String.format("%.0f", rate) + ", " + String.format("%.2f", rate / baseline));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.gamesbykevin.tictactoe.tools;
+
+import com.gamesbykevin.tictactoe.ai.AI;
+import com.gamesbykevin.tictactoe.ai.OpeningBook;
+import com.gamesbykevin.tictactoe.ai.ParallelSearch;
+import com.gamesbykevin.tictactoe.board.Board;
+import com.gamesbykevin.tictactoe.board.BoardHelper;
+import com.gamesbykevin.tictactoe.game.Match;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays games between two strategies without a screen and reports the results.<br>
+ * Games are shared between one thread per core, each thread has its own match and its own ai,
+ * and every ai searches on a single thread so the games don't compete for cores.<br>
+ * The first player alternates every game, so neither strategy always starts.<br>
+ * With a seed the random decisions of each game are seeded from the seed and the game number,
+ * and the move log of every game can be written to a file for replays and offline analysis.
+ * @author ABRAHAM
+ */
+public final class SelfPlay
+{
+    /**
+     * The number of games played if not provided
+     */
+    public static final int DEFAULT_GAMES = 10000;
+    
+    /**
+     * The time (milliseconds) each move can take if not provided
+     */
+    public static final long DEFAULT_TIME_BUDGET = 20;
+    
+    /**
+     * Where the opening book is loaded from, if it exists
+     */
+    public static final String OPENING_BOOK = "res/raw/opening_book.bin";
+    
+    //the strategies playing X and O
+    private final AI.Difficulty strategyX, strategyO;
+    
+    //the time each move can take
+    private final long timeBudget;
+    
+    //the next game to be played
+    private final AtomicInteger next = new AtomicInteger();
+    
+    //the number of games to play
+    private final int games;
+    
+    //the dimensions and match count of the board
+    private final int cols, rows, matchCount;
+    
+    //the seed of the random decisions, null if they aren't seeded
+    private final Long seed;
+    
+    //where the move log of every game is written, null if they aren't written
+    private final OutputStream logs;
+    
+    private SelfPlay(final int games, final AI.Difficulty strategyX, final AI.Difficulty strategyO, final long timeBudget, final int cols, final int rows, final int matchCount, final Long seed, final OutputStream logs)
+    {
+        this.seed = seed;
+        this.logs = logs;
+        this.games = games;
+        this.cols = cols;
+        this.rows = rows;
+        this.matchCount = matchCount;
+        this.strategyX = strategyX;
+        this.strategyO = strategyO;
+        this.timeBudget = timeBudget;
+    }
+    
+    /**
+     * Play games until every game has been played
+     * @return The match containing the score of the games this thread played
+     * @throws IOException If a move log can't be written
+     */
+    private Match play() throws IOException
+    {
+        final Match match = new Match(new Board(cols, rows, matchCount));
+        final AI aiX = new AI(timeBudget, 1);
+        final AI aiO = new AI(timeBudget, 1);
+        
+        try
+        {
+            int game;
+            
+            while ((game = next.getAndIncrement()) < games)
+            {
+                match.reset();
+                
+                //alternate the first player
+                match.setPlayer1Turn(game % 2 == 0);
+                
+                //the same seed and game number make the same random decisions
+                if (seed != null)
+                {
+                    aiX.setSeed(seed + (2 * game));
+                    aiO.setSeed(seed + (2 * game) + 1);
+                    match.getMoveLog().setSeed(seed + (2 * game));
+                }
+                
+                final Board board = match.getBoard();
+                
+                while (!board.hasGameover())
+                {
+                    final AI ai = (match.isPlayer1Turn()) ? aiX : aiO;
+                    final AI.Difficulty strategy = (match.isPlayer1Turn()) ? strategyX : strategyO;
+                    
+                    final int move = ai.getMove(board, match.getTurnKey(), match.getOpponentKey(), strategy);
+                    
+                    match.play(move % board.getCols(), move / board.getCols());
+                }
+                
+                if (logs != null)
+                {
+                    //the threads share the file
+                    synchronized (logs)
+                    {
+                        match.getMoveLog().write(logs);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            aiX.shutdown();
+            aiO.shutdown();
+        }
+        
+        return match;
+    }
+    
+    /**
+     * Load the opening book if it exists
+     * @throws IOException If the opening book can't be read
+     */
+    private static void loadOpeningBook() throws IOException
+    {
+        final File file = new File(OPENING_BOOK);
+        
+        if (!file.exists())
+        {
+            System.out.println("No opening book found at " + OPENING_BOOK);
+            return;
+        }
+        
+        final InputStream input = new BufferedInputStream(new FileInputStream(file));
+        
+        try
+        {
+            AI.setOpeningBook(OpeningBook.load(input));
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+    
+    /**
+     * Run the games
+     * @param args The number of games, the strategy of X, the strategy of O,
+     * the number of threads, the time (milliseconds) each move can take
+     * the columns, rows and match count of the board, the seed of the random decisions
+     * and the file the move logs are written to. All are optional.
+     * @throws Exception If the opening book can't be read or a game fails
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        final int games = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final AI.Difficulty strategyX = (args.length > 1) ? AI.Difficulty.valueOf(args[1]) : AI.Difficulty.Hard;
+        final AI.Difficulty strategyO = (args.length > 2) ? AI.Difficulty.valueOf(args[2]) : AI.Difficulty.Easy;
+        final int threads = (args.length > 3) ? Integer.parseInt(args[3]) : ParallelSearch.DEFAULT_THREADS;
+        final long timeBudget = (args.length > 4) ? Long.parseLong(args[4]) : DEFAULT_TIME_BUDGET;
+        final int cols = (args.length > 5) ? Integer.parseInt(args[5]) : Board.DEFAULT_BOARD_DIMENSION;
+        final int rows = (args.length > 6) ? Integer.parseInt(args[6]) : cols;
+        final int matchCount = (args.length > 7) ? Integer.parseInt(args[7]) : BoardHelper.MATCH_COUNT;
+        final Long seed = (args.length > 8) ? Long.valueOf(args[8]) : null;
+        final OutputStream logs = (args.length > 9) ? new BufferedOutputStream(new FileOutputStream(args[9])) : null;
+        
+        loadOpeningBook();
+        
+        System.out.println(games + " games on " + cols + "x" + rows + " with " + matchCount + " in a row, X = " + strategyX + ", O = " + strategyO + ", " + threads + " threads");
+        
+        final SelfPlay selfPlay = new SelfPlay(games, strategyX, strategyO, timeBudget, cols, rows, matchCount, seed, logs);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<Match>> results = new ArrayList<Future<Match>>();
+        
+        final long start = System.nanoTime();
+        
+        for (int i = 0; i < threads; i++)
+        {
+            results.add(executor.submit(new Callable<Match>()
+            {
+                @Override
+                public Match call() throws IOException
+                {
+                    return selfPlay.play();
+                }
+            }));
+        }
+        
+        int winsX = 0, winsO = 0, ties = 0;
+        
+        try
+        {
+            for (Future<Match> result : results)
+            {
+                final Match match = result.get();
+                winsX += match.getPlayer1Wins();
+                winsO += match.getPlayer2Wins();
+                ties += match.getTies();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            
+            if (logs != null)
+                logs.close();
+        }
+        
+        final double seconds = (System.nanoTime() - start) / 1000000000.0;
+        
+        System.out.println("X (" + strategyX + ") wins: " + winsX);
+        System.out.println("O (" + strategyO + ") wins: " + winsO);
+        System.out.println("Ties: " + ties);
+        System.out.println(String.format("%.3f", seconds) + " seconds, " + String.format("%.0f", games / seconds) + " games/second");
+    }
+}
\ No newline at end of file